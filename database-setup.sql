@@ -64,4 +64,46 @@ INSERT INTO terminal_edc (terminal_id, location, status, merchant_name, ip_addre
 ('EDC003', 'Bandung', 'INACTIVE', 'Merchant C', '192.168.1.102', 8080),
 ('EDC004', 'Surabaya', 'ACTIVE', 'Merchant D', '192.168.1.103', 8080),
 ('EDC005', 'Medan', 'MAINTENANCE', 'Merchant E', '192.168.1.104', 8080);
-*/
\ No newline at end of file
+*/
+
+-- Migration: pooled id allocation for echo_log (batched inserts)
+-- EchoLog ids are taken from echo_log_id_seq in blocks of 50 so Hibernate can batch inserts.
+-- Existing installations created with BIGSERIAL must bump the sequence increment once:
+ALTER SEQUENCE IF EXISTS echo_log_id_seq INCREMENT BY 50;
+
+-- Migration: running echo_log totals (read by GET /edc/echo-logs/stats instead of counting echo_log)
+-- The application seeds the row from echo_log on first start.
+CREATE TABLE IF NOT EXISTS echo_log_stats (
+    stats_key VARCHAR(50) PRIMARY KEY,
+    total_logs BIGINT NOT NULL,
+    valid_signatures BIGINT NOT NULL,
+    invalid_signatures BIGINT NOT NULL,
+    updated_at TIMESTAMP
+);
+
+-- Migration: per-minute / per-hour echo rollups (terminal_id '*' holds the fleet totals)
+CREATE TABLE IF NOT EXISTS echo_rollup (
+    granularity VARCHAR(10) NOT NULL,
+    terminal_id VARCHAR(255) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    echo_count BIGINT NOT NULL,
+    success_count BIGINT NOT NULL,
+    unauthorized_count BIGINT NOT NULL,
+    not_found_count BIGINT NOT NULL,
+    first_echo TIMESTAMP,
+    last_echo TIMESTAMP,
+    PRIMARY KEY (granularity, terminal_id, bucket_start)
+);
+-- The primary key already serves (granularity, terminal_id, bucket_start) range reads
+DROP INDEX IF EXISTS idx_echo_rollup_series;
+
+-- Migration: range-partitioned echo_log (daily/monthly partitions on request_timestamp)
+-- Applied automatically at startup when app.echo-log.partitioning.enabled=true, or by hand:
+--   \i src/main/resources/db/echo_log_partitioning.sql
+
+-- Migration: trigram search over terminal location and merchant name
+-- Created automatically at startup when app.terminal.search.trigram.enabled=true (needs pg_trgm).
+-- The expression must match TerminalSearchService.SEARCH_TEXT.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_terminal_edc_search_trgm
+    ON terminal_edc USING gist ((lower(location || ' ' || coalesce(merchant_name, ''))) gist_trgm_ops);
@@ -0,0 +1,37 @@
+package com.example.edcmanagement.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncEchoConfig {
+    
+    @Value("${app.echo.async.core-pool-size:16}")
+    private int corePoolSize;
+    
+    @Value("${app.echo.async.max-pool-size:64}")
+    private int maxPoolSize;
+    
+    @Value("${app.echo.async.queue-capacity:1000}")
+    private int queueCapacity;
+    
+    /**
+     * Bounded executor for /edc/echo/async. Once the pool and queue are full,
+     * submissions are rejected (AbortPolicy) and the controller answers 503
+     * right away instead of queueing more work.
+     */
+    @Bean(name = "echoExecutor")
+    public ThreadPoolTaskExecutor echoExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("echo-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
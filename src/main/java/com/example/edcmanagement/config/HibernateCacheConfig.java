@@ -0,0 +1,82 @@
+package com.example.edcmanagement.config;
+
+import com.example.edcmanagement.entity.TerminalEDC;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caffeine-backed regions for the Hibernate second-level cache.
+ *
+ * The regions are created here with size and TTL bounds and handed to
+ * Hibernate, which is set to fail on any region it does not find. The TTL
+ * bounds how stale a terminal can get if a write ever skips invalidation.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    @Value("${app.terminal.cache.max-size:100000}")
+    private long maxSize;
+
+    @Value("${app.terminal.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${app.terminal.cache.query-max-size:1000}")
+    private long queryMaxSize;
+
+    @Value("${app.terminal.cache.query-ttl-seconds:60}")
+    private long queryTtlSeconds;
+
+    // Hibernate statistics are counted on every session and query, so only when asked for
+    @Value("${app.terminal.cache.statistics-enabled:false}")
+    private boolean statisticsEnabled;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager();
+
+        cacheManager.createCache(TerminalEDC.CACHE_REGION, region(maxSize, ttlSeconds));
+        cacheManager.createCache(TerminalEDC.NATURAL_ID_CACHE_REGION, region(maxSize, ttlSeconds));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+            region(queryMaxSize, queryTtlSeconds));
+        // Must never drop entries before the query results that depend on them
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+            region(0, 0));
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(AvailableSettings.GENERATE_STATISTICS, statisticsEnabled);
+        };
+    }
+
+    // A bound of 0 means unbounded
+    private static CaffeineConfiguration<Object, Object> region(long maximumSize, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate already stores disassembled entries; copying them again buys nothing
+        configuration.setStoreByValue(false);
+        if (maximumSize > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        }
+        if (ttlSeconds > 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        }
+        return configuration;
+    }
+}
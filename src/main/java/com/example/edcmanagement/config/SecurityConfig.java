@@ -40,11 +40,15 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
             .authorizeRequests()
                 // Allow echo endpoint without authentication (signature validation handles security)
                 .antMatchers(HttpMethod.POST, "/edc/echo").permitAll()
+                .antMatchers(HttpMethod.POST, "/edc/echo/async").permitAll()
+                .antMatchers(HttpMethod.POST, "/edc/echo/batch").permitAll()
                 // Allow test endpoints without authentication for development
                 .antMatchers("/test/**").permitAll()
                 // Allow health check endpoints
                 .antMatchers("/actuator/health").permitAll()
                 .antMatchers("/health").permitAll()
+                // Flight recordings expose internals of the running JVM
+                .antMatchers("/admin/**").hasRole("ADMIN")
                 // Require authentication for all other endpoints
                 .antMatchers(HttpMethod.GET, "/edc/terminals/**").authenticated()
                 .antMatchers(HttpMethod.POST, "/edc/terminals/**").authenticated()
@@ -0,0 +1,40 @@
+package com.example.edcmanagement.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebAsyncConfig implements WebMvcConfigurer {
+    
+    @Value("${app.echo-log.export.max-concurrent:4}")
+    private int maxConcurrentExports;
+    
+    @Value("${app.echo-log.export.timeout-ms:1800000}")
+    private long exportTimeoutMs;
+    
+    /**
+     * Runs streaming responses (echo log exports). Few threads and no queue:
+     * exports beyond the limit are rejected instead of piling up.
+     */
+    @Bean(name = "streamingExecutor")
+    public ThreadPoolTaskExecutor streamingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentExports);
+        executor.setMaxPoolSize(maxConcurrentExports);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("export-");
+        executor.initialize();
+        return executor;
+    }
+    
+    // DeferredResult endpoints (POST /edc/echo/async) set their own, shorter timeout
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingExecutor());
+        configurer.setDefaultTimeout(exportTimeoutMs);
+    }
+}
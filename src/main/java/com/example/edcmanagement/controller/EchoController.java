@@ -1,30 +1,52 @@
 package com.example.edcmanagement.controller;
 
 import com.example.edcmanagement.dto.ApiResponse;
+import com.example.edcmanagement.dto.CursorPage;
+import com.example.edcmanagement.dto.EchoLogDto;
+import com.example.edcmanagement.dto.EchoBatchEntry;
+import com.example.edcmanagement.dto.EchoBatchRequest;
 import com.example.edcmanagement.dto.EchoLogStatsDto;
+import com.example.edcmanagement.dto.EchoLogWriterStatsDto;
 import com.example.edcmanagement.dto.EchoRequest;
 import com.example.edcmanagement.dto.EchoResponse;
-import com.example.edcmanagement.entity.EchoLog;
+import com.example.edcmanagement.dto.EchoTimeseriesDto;
+import com.example.edcmanagement.dto.PageDto;
+import com.example.edcmanagement.service.EchoLogExportService;
 import com.example.edcmanagement.service.EchoLogService;
+import com.example.edcmanagement.service.EchoLogWriter;
+import com.example.edcmanagement.service.EchoMetrics;
+import com.example.edcmanagement.service.EchoProcessingService;
+import com.example.edcmanagement.service.EchoRequestEvent;
+import com.example.edcmanagement.service.EchoRollupService;
 import com.example.edcmanagement.service.SignatureService;
-import com.example.edcmanagement.service.TerminalEDCService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/edc")
@@ -40,28 +62,148 @@ public class EchoController {
     private SignatureService signatureService;
     
     @Autowired
-    private TerminalEDCService terminalService;
+    private EchoLogWriter echoLogWriter;
+    
+    @Autowired
+    private EchoProcessingService echoProcessingService;
+    
+    @Autowired
+    private EchoRollupService echoRollupService;
+    
+    @Autowired
+    private EchoLogExportService echoLogExportService;
+    
+    @Autowired
+    private EchoMetrics echoMetrics;
+    
+    @Autowired
+    @Qualifier("echoExecutor")
+    private Executor echoExecutor;
+    
+    @Value("${app.echo.async.timeout-ms:5000}")
+    private long asyncEchoTimeoutMs;
     
     @PostMapping("/echo")
     public ResponseEntity<EchoResponse> echo(@Valid @RequestBody EchoRequest request, 
                                            HttpServletRequest httpRequest) {
         
+        LocalDateTime requestTimestamp = LocalDateTime.now();
+        
+        return handleEcho(request.getTerminalId(), httpRequest.getHeader("Signature"),
+            resolveRequestTime(request, httpRequest), getClientIpAddress(httpRequest),
+            httpRequest.getHeader("User-Agent"), requestTimestamp);
+    }
+    
+    /**
+     * Same as {@link #echo} but processed on the bounded echo executor, so a slow
+     * database does not hold servlet container threads. Returns 503 when the
+     * executor is saturated or processing exceeds app.echo.async.timeout-ms.
+     */
+    @PostMapping("/echo/async")
+    public DeferredResult<ResponseEntity<EchoResponse>> echoAsync(@Valid @RequestBody EchoRequest request, 
+                                                                 HttpServletRequest httpRequest) {
+        
         LocalDateTime requestTimestamp = LocalDateTime.now();
         String terminalId = request.getTerminalId();
         String signature = httpRequest.getHeader("Signature");
+        String requestTime = resolveRequestTime(request, httpRequest);
+        String clientIp = getClientIpAddress(httpRequest);
+        String userAgent = httpRequest.getHeader("User-Agent");
+        
+        DeferredResult<ResponseEntity<EchoResponse>> result = new DeferredResult<>(asyncEchoTimeoutMs);
+        result.onTimeout(() -> {
+            logger.warn("Echo processing timed out for terminal: {}", terminalId);
+            result.setErrorResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(
+                new EchoResponse(terminalId, requestTimestamp, "ERROR", "Echo processing timed out")));
+        });
+        
+        try {
+            echoExecutor.execute(() -> result.setResult(
+                handleEcho(terminalId, signature, requestTime, clientIp, userAgent, requestTimestamp)));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Echo executor saturated, rejecting echo from terminal: {}", terminalId);
+            result.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(
+                new EchoResponse(terminalId, requestTimestamp, "ERROR", "Server busy, retry later")));
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Accepts many signed echoes in one request (e.g. from a terminal concentrator).
+     * Every entry carries its own signature and gets its own status in the response.
+     */
+    @PostMapping("/echo/batch")
+    public ResponseEntity<ApiResponse<List<EchoResponse>>> echoBatch(@Valid @RequestBody EchoBatchRequest request, 
+                                                                    HttpServletRequest httpRequest) {
+        
+        LocalDateTime requestTimestamp = LocalDateTime.now();
         String clientIp = getClientIpAddress(httpRequest);
         String userAgent = httpRequest.getHeader("User-Agent");
+        List<EchoBatchEntry> entries = request.getEntries();
+        
+        logger.info("Echo batch of {} entries received from {}", entries.size(), clientIp);
+        
+        try {
+            List<String> terminalIds = new ArrayList<>(entries.size());
+            List<Boolean> signatureValid = new ArrayList<>(entries.size());
+            for (EchoBatchEntry entry : entries) {
+                terminalIds.add(entry.getTerminalId());
+                signatureValid.add(signatureService.validateEchoSignature(
+                    entry.getSignature(), entry.getTerminalId(), entry.getRequestTime(), requestTimestamp));
+            }
+            
+            List<String> outcomes = echoProcessingService.processEchoBatch(
+                terminalIds, signatureValid, clientIp, userAgent);
+            
+            List<EchoResponse> results = new ArrayList<>(entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                results.add(toEchoResponse(terminalIds.get(i), requestTimestamp, outcomes.get(i)));
+            }
+            
+            ApiResponse<List<EchoResponse>> response = ApiResponse.success(
+                "Echo batch processed", results);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("Error processing echo batch from {}", clientIp, e);
+            ApiResponse<List<EchoResponse>> response = ApiResponse.error("Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
+    private EchoResponse toEchoResponse(String terminalId, LocalDateTime requestTimestamp, String outcome) {
+        if (EchoProcessingService.UNAUTHORIZED.equals(outcome)) {
+            return new EchoResponse(terminalId, requestTimestamp, "ERROR", "Unauthorized - Invalid signature");
+        }
+        if (EchoProcessingService.NOT_FOUND.equals(outcome)) {
+            return new EchoResponse(terminalId, requestTimestamp, "ERROR", "Terminal not found");
+        }
+        return new EchoResponse(terminalId, requestTimestamp, "SUCCESS", "Echo received successfully");
+    }
+    
+    private ResponseEntity<EchoResponse> handleEcho(String terminalId, String signature, String requestTime,
+                                                    String clientIp, String userAgent,
+                                                    LocalDateTime requestTimestamp) {
         
         logger.info("Echo request received from terminal: {} at {}", terminalId, requestTimestamp);
         
+        EchoRequestEvent event = new EchoRequestEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String outcome = "ERROR";
         try {
-            boolean isSignatureValid = signatureService.validateSignatureWithTolerance(
-                signature, terminalId, requestTimestamp, 2); // 2 minutes tolerance
+            boolean isSignatureValid = signatureService.validateEchoSignature(
+                signature, terminalId, requestTime, requestTimestamp);
+            echoMetrics.recordStage(EchoMetrics.SIGNATURE,
+                isSignatureValid ? EchoMetrics.VALID : EchoMetrics.INVALID, start);
+            
+            outcome = echoProcessingService.processEcho(
+                terminalId, clientIp, userAgent, isSignatureValid, requestTimestamp);
             
-            if (!isSignatureValid) {
+            if (EchoProcessingService.UNAUTHORIZED.equals(outcome)) {
                 logger.warn("Invalid signature for terminal: {}", terminalId);
-                echoLogService.createEchoLog(terminalId, clientIp, userAgent, 
-                    false, "UNAUTHORIZED", "Invalid signature");
                 
                 EchoResponse response = new EchoResponse(terminalId, requestTimestamp, 
                     "ERROR", "Unauthorized - Invalid signature");
@@ -69,22 +211,14 @@ public class EchoController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
             }
             
-            if (!terminalService.existsByTerminalId(terminalId)) {
+            if (EchoProcessingService.NOT_FOUND.equals(outcome)) {
                 logger.warn("Unknown terminal ID: {}", terminalId);
-
-                echoLogService.createEchoLog(terminalId, clientIp, userAgent, 
-                    true, "NOT_FOUND", "Terminal not found");
                 
                 EchoResponse response = new EchoResponse(terminalId, requestTimestamp, 
                     "ERROR", "Terminal not found");
                 
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
             }
-
-            terminalService.updateLastPing(terminalId);
-
-            echoLogService.createEchoLog(terminalId, clientIp, userAgent, 
-                true, "SUCCESS", null);
             
             logger.info("Echo processed successfully for terminal: {}", terminalId);
             
@@ -96,18 +230,25 @@ public class EchoController {
         } catch (Exception e) {
             logger.error("Error processing echo request for terminal: {}", terminalId, e);
 
-            echoLogService.createEchoLog(terminalId, clientIp, userAgent, 
+            echoLogService.recordEchoLog(terminalId, clientIp, userAgent, 
                 null, "ERROR", "Internal server error: " + e.getMessage());
             
             EchoResponse response = new EchoResponse(terminalId, requestTimestamp, 
                 "ERROR", "Internal server error");
             
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        } finally {
+            echoMetrics.recordEcho(outcome, start);
+            if (event.shouldCommit()) {
+                event.terminalId = terminalId;
+                event.outcome = outcome;
+                event.commit();
+            }
         }
     }
 
     @GetMapping("/echo-logs")
-    public ResponseEntity<ApiResponse<Page<EchoLog>>> getAllEchoLogs(
+    public ResponseEntity<ApiResponse<PageDto<EchoLogDto>>> getAllEchoLogs(
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "10") @Min(1) int size,
             @RequestParam(defaultValue = "requestTimestamp") String sortBy,
@@ -118,41 +259,67 @@ public class EchoController {
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
             
             Pageable pageable = PageRequest.of(page, size, sort);
-            Page<EchoLog> echoLogs = echoLogService.getAllEchoLogs(pageable);
+            PageDto<EchoLogDto> echoLogs = PageDto.of(echoLogService.getAllEchoLogs(pageable));
             
-            ApiResponse<Page<EchoLog>> response = ApiResponse.success(
+            ApiResponse<PageDto<EchoLogDto>> response = ApiResponse.success(
                 "Echo logs retrieved successfully", echoLogs);
             
             return ResponseEntity.ok(response);
             
         } catch (Exception e) {
             logger.error("Error retrieving echo logs", e);
-            ApiResponse<Page<EchoLog>> response = ApiResponse.error("Internal server error");
+            ApiResponse<PageDto<EchoLogDto>> response = ApiResponse.error("Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/echo-logs/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<EchoLogDto>>> getEchoLogPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(1000) int size) {
+        
+        try {
+            CursorPage<EchoLogDto> echoLogs = echoLogService.getEchoLogPage(cursor, size);
+            
+            ApiResponse<CursorPage<EchoLogDto>> response = ApiResponse.success(
+                "Echo logs retrieved successfully", echoLogs);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            ApiResponse<CursorPage<EchoLogDto>> response = ApiResponse.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            logger.error("Error retrieving echo log page", e);
+            ApiResponse<CursorPage<EchoLogDto>> response = ApiResponse.error("Internal server error");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
 
     @GetMapping("/echo-logs/terminal/{terminalId}")
-    public ResponseEntity<ApiResponse<List<EchoLog>>> getEchoLogsByTerminalId(
-            @PathVariable String terminalId) {
+    public ResponseEntity<ApiResponse<List<EchoLogDto>>> getEchoLogsByTerminalId(
+            @PathVariable String terminalId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
         
         try {
-            List<EchoLog> echoLogs = echoLogService.getEchoLogsByTerminalId(terminalId);
+            List<EchoLogDto> echoLogs = since != null
+                ? echoLogService.getEchoLogsByTerminalIdSince(terminalId, since)
+                : echoLogService.getEchoLogsByTerminalId(terminalId);
             
-            ApiResponse<List<EchoLog>> response = ApiResponse.success(
+            ApiResponse<List<EchoLogDto>> response = ApiResponse.success(
                 "Echo logs retrieved successfully for terminal: " + terminalId, echoLogs);
             
             return ResponseEntity.ok(response);
             
         } catch (Exception e) {
             logger.error("Error retrieving echo logs for terminal: {}", terminalId, e);
-            ApiResponse<List<EchoLog>> response = ApiResponse.error("Internal server error");
+            ApiResponse<List<EchoLogDto>> response = ApiResponse.error("Internal server error");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
 
     @GetMapping("/echo-logs/terminal/{terminalId}/paged")
-    public ResponseEntity<ApiResponse<Page<EchoLog>>> getEchoLogsByTerminalIdPaged(
+    public ResponseEntity<ApiResponse<PageDto<EchoLogDto>>> getEchoLogsByTerminalIdPaged(
             @PathVariable String terminalId,
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "10") @Min(1) int size) {
@@ -161,52 +328,76 @@ public class EchoController {
             Pageable pageable = PageRequest.of(page, size, 
                 Sort.by("requestTimestamp").descending());
             
-            Page<EchoLog> echoLogs = echoLogService.getEchoLogsByTerminalId(terminalId, pageable);
+            PageDto<EchoLogDto> echoLogs = PageDto.of(echoLogService.getEchoLogsByTerminalId(terminalId, pageable));
             
-            ApiResponse<Page<EchoLog>> response = ApiResponse.success(
+            ApiResponse<PageDto<EchoLogDto>> response = ApiResponse.success(
                 "Echo logs retrieved successfully for terminal: " + terminalId, echoLogs);
             
             return ResponseEntity.ok(response);
             
         } catch (Exception e) {
             logger.error("Error retrieving paged echo logs for terminal: {}", terminalId, e);
-            ApiResponse<Page<EchoLog>> response = ApiResponse.error("Internal server error");
+            ApiResponse<PageDto<EchoLogDto>> response = ApiResponse.error("Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/echo-logs/terminal/{terminalId}/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<EchoLogDto>>> getEchoLogPageByTerminalId(
+            @PathVariable String terminalId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(1000) int size) {
+        
+        try {
+            CursorPage<EchoLogDto> echoLogs = echoLogService.getEchoLogPageByTerminalId(terminalId, cursor, size);
+            
+            ApiResponse<CursorPage<EchoLogDto>> response = ApiResponse.success(
+                "Echo logs retrieved successfully for terminal: " + terminalId, echoLogs);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            ApiResponse<CursorPage<EchoLogDto>> response = ApiResponse.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            logger.error("Error retrieving echo log page for terminal: {}", terminalId, e);
+            ApiResponse<CursorPage<EchoLogDto>> response = ApiResponse.error("Internal server error");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
 
     @GetMapping("/echo-logs/today")
-    public ResponseEntity<ApiResponse<List<EchoLog>>> getTodayEchoLogs() {
+    public ResponseEntity<ApiResponse<List<EchoLogDto>>> getTodayEchoLogs() {
         try {
-            List<EchoLog> echoLogs = echoLogService.getTodayEchoLogs();
+            List<EchoLogDto> echoLogs = echoLogService.getTodayEchoLogs();
             
-            ApiResponse<List<EchoLog>> response = ApiResponse.success(
+            ApiResponse<List<EchoLogDto>> response = ApiResponse.success(
                 "Today's echo logs retrieved successfully", echoLogs);
             
             return ResponseEntity.ok(response);
             
         } catch (Exception e) {
             logger.error("Error retrieving today's echo logs", e);
-            ApiResponse<List<EchoLog>> response = ApiResponse.error("Internal server error");
+            ApiResponse<List<EchoLogDto>> response = ApiResponse.error("Internal server error");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
 
     @GetMapping("/echo-logs/today/terminal/{terminalId}")
-    public ResponseEntity<ApiResponse<List<EchoLog>>> getTodayEchoLogsByTerminalId(
+    public ResponseEntity<ApiResponse<List<EchoLogDto>>> getTodayEchoLogsByTerminalId(
             @PathVariable String terminalId) {
         
         try {
-            List<EchoLog> echoLogs = echoLogService.getTodayEchoLogsByTerminalId(terminalId);
+            List<EchoLogDto> echoLogs = echoLogService.getTodayEchoLogsByTerminalId(terminalId);
             
-            ApiResponse<List<EchoLog>> response = ApiResponse.success(
+            ApiResponse<List<EchoLogDto>> response = ApiResponse.success(
                 "Today's echo logs retrieved successfully for terminal: " + terminalId, echoLogs);
             
             return ResponseEntity.ok(response);
             
         } catch (Exception e) {
             logger.error("Error retrieving today's echo logs for terminal: {}", terminalId, e);
-            ApiResponse<List<EchoLog>> response = ApiResponse.error("Internal server error");
+            ApiResponse<List<EchoLogDto>> response = ApiResponse.error("Internal server error");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
@@ -214,11 +405,7 @@ public class EchoController {
     @GetMapping("/echo-logs/stats")
     public ResponseEntity<ApiResponse<Object>> getEchoLogStats() {
         try {
-            long totalLogs = echoLogService.getAllEchoLogs().size();
-            long validSignatures = echoLogService.getEchoLogCountBySignatureValid(true);
-            long invalidSignatures = echoLogService.getEchoLogCountBySignatureValid(false);
-
-            EchoLogStatsDto stats = new EchoLogStatsDto(totalLogs, validSignatures, invalidSignatures);
+            EchoLogStatsDto stats = echoLogService.getEchoLogStats();
 
             ApiResponse<Object> response = ApiResponse.success(
                 "Echo log statistics retrieved successfully", stats);
@@ -232,6 +419,97 @@ public class EchoController {
         }
     }
 
+    @GetMapping("/echo-logs/timeseries")
+    public ResponseEntity<ApiResponse<EchoTimeseriesDto>> getEchoTimeseries(
+            @RequestParam(required = false) String terminalId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String granularity,
+            @RequestParam(defaultValue = "500") @Min(1) int maxPoints) {
+        
+        try {
+            EchoTimeseriesDto timeseries = echoRollupService.getTimeseries(
+                terminalId, start, end, granularity, maxPoints);
+            
+            ApiResponse<EchoTimeseriesDto> response = ApiResponse.success(
+                "Echo time series retrieved successfully", timeseries);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            ApiResponse<EchoTimeseriesDto> response = ApiResponse.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            logger.error("Error retrieving echo time series", e);
+            ApiResponse<EchoTimeseriesDto> response = ApiResponse.error("Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Streams the echo logs of [start, end) as NDJSON or CSV, optionally gzipped.
+     */
+    @GetMapping("/echo-logs/export")
+    public ResponseEntity<?> exportEchoLogs(
+            @RequestParam(required = false) String terminalId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(defaultValue = EchoLogExportService.NDJSON) String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        
+        try {
+            echoLogExportService.validateRequest(start, end, format);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<Object> response = ApiResponse.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        
+        logger.info("Exporting echo logs between {} and {} as {}", start, end, format);
+        
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192, true)) {
+                    echoLogExportService.export(terminalId, start, end, format, gzipOut);
+                }
+            } else {
+                echoLogExportService.export(terminalId, start, end, format, out);
+            }
+        };
+        
+        String fileName = "echo-logs." + format + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+            : EchoLogExportService.CSV.equals(format) ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+            : MediaType.parseMediaType("application/x-ndjson;charset=UTF-8");
+        
+        return ResponseEntity.ok()
+            .contentType(contentType)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+            .body(body);
+    }
+
+    @GetMapping("/echo-logs/writer/stats")
+    public ResponseEntity<ApiResponse<EchoLogWriterStatsDto>> getEchoLogWriterStats() {
+        try {
+            ApiResponse<EchoLogWriterStatsDto> response = ApiResponse.success(
+                "Echo log writer statistics retrieved successfully", echoLogWriter.getStats());
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error retrieving echo log writer statistics", e);
+            ApiResponse<EchoLogWriterStatsDto> response = ApiResponse.error("Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * The Request-Time header takes precedence over the requestTime body field.
+     */
+    static String resolveRequestTime(EchoRequest request, HttpServletRequest httpRequest) {
+        String requestTime = httpRequest.getHeader("Request-Time");
+        return requestTime != null ? requestTime : request.getRequestTime();
+    }
+
     private String getClientIpAddress(HttpServletRequest request) {
         String xForwardedForHeader = request.getHeader("X-Forwarded-For");
         if (xForwardedForHeader != null && !xForwardedForHeader.isEmpty()) {
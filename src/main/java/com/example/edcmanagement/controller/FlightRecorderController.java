@@ -0,0 +1,123 @@
+package com.example.edcmanagement.controller;
+
+import com.example.edcmanagement.dto.ApiResponse;
+import com.example.edcmanagement.dto.FlightRecordingStatusDto;
+import com.example.edcmanagement.service.FlightRecordingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Starts, stops and downloads the echo pipeline flight recording. Restricted
+ * to ADMIN in SecurityConfig.
+ */
+@RestController
+@RequestMapping("/admin/jfr")
+public class FlightRecorderController {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorderController.class);
+
+    @Autowired
+    private FlightRecordingService flightRecordingService;
+
+    @PostMapping("/start")
+    public ResponseEntity<ApiResponse<FlightRecordingStatusDto>> start(
+            @RequestParam(required = false) Long durationMinutes,
+            @RequestParam(required = false) Long thresholdMs,
+            @RequestParam(defaultValue = "default") String settings) {
+
+        try {
+            FlightRecordingStatusDto status = flightRecordingService.start(durationMinutes, thresholdMs, settings);
+
+            ApiResponse<FlightRecordingStatusDto> response = ApiResponse.success(
+                "Flight recording started", status);
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            ApiResponse<FlightRecordingStatusDto> response = ApiResponse.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (IllegalStateException e) {
+            ApiResponse<FlightRecordingStatusDto> response = ApiResponse.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (Exception e) {
+            logger.error("Error starting flight recording", e);
+            ApiResponse<FlightRecordingStatusDto> response = ApiResponse.error("Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<ApiResponse<FlightRecordingStatusDto>> stop() {
+        try {
+            ApiResponse<FlightRecordingStatusDto> response = ApiResponse.success(
+                "Flight recording stopped", flightRecordingService.stop());
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalStateException e) {
+            ApiResponse<FlightRecordingStatusDto> response = ApiResponse.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (Exception e) {
+            logger.error("Error stopping flight recording", e);
+            ApiResponse<FlightRecordingStatusDto> response = ApiResponse.error("Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<ApiResponse<FlightRecordingStatusDto>> getStatus() {
+        try {
+            ApiResponse<FlightRecordingStatusDto> response = ApiResponse.success(
+                "Flight recording status retrieved successfully", flightRecordingService.getStatus());
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error retrieving flight recording status", e);
+            ApiResponse<FlightRecordingStatusDto> response = ApiResponse.error("Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Downloads the data of the running or last stopped recording as a .jfr
+     * file, for JDK Mission Control or the jfr tool.
+     */
+    @GetMapping("/dump")
+    public ResponseEntity<?> dump() {
+        Path file;
+        try {
+            file = flightRecordingService.dump();
+        } catch (IllegalStateException e) {
+            ApiResponse<Object> response = ApiResponse.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (Exception e) {
+            logger.error("Error dumping flight recording", e);
+            ApiResponse<Object> response = ApiResponse.error("Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+            .body(body);
+    }
+}
@@ -1,9 +1,18 @@
 package com.example.edcmanagement.controller;
 
 import com.example.edcmanagement.dto.ApiResponse;
+import com.example.edcmanagement.dto.CursorPage;
+import com.example.edcmanagement.dto.TerminalCacheStatsDto;
+import com.example.edcmanagement.dto.PageDto;
+import com.example.edcmanagement.dto.TerminalEDCDto;
 import com.example.edcmanagement.dto.TerminalEDCRequest;
+import com.example.edcmanagement.dto.TerminalImportResultDto;
+import com.example.edcmanagement.dto.TerminalLivenessStatsDto;
+import com.example.edcmanagement.dto.TerminalOfflineEventDto;
+import com.example.edcmanagement.dto.TerminalRegistryStatsDto;
 import com.example.edcmanagement.entity.TerminalEDC;
 import com.example.edcmanagement.service.TerminalEDCService;
+import com.example.edcmanagement.service.TerminalImportService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,15 +20,21 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/edc/terminals")
@@ -31,6 +46,9 @@ public class TerminalEDCController {
     @Autowired
     private TerminalEDCService terminalService;
 
+    @Autowired
+    private TerminalImportService terminalImportService;
+
     @PostMapping
     public ResponseEntity<ApiResponse<TerminalEDC>> createTerminal(@Valid @RequestBody TerminalEDCRequest request) {
         try {
@@ -63,7 +81,7 @@ public class TerminalEDCController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<Page<TerminalEDC>>> getAllTerminals(
+    public ResponseEntity<ApiResponse<PageDto<TerminalEDCDto>>> getAllTerminals(
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "10") @Min(1) int size,
             @RequestParam(defaultValue = "id") String sortBy,
@@ -74,16 +92,80 @@ public class TerminalEDCController {
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
             
             Pageable pageable = PageRequest.of(page, size, sort);
-            Page<TerminalEDC> terminals = terminalService.getAllTerminals(pageable);
+            PageDto<TerminalEDCDto> terminals = PageDto.of(terminalService.getAllTerminals(pageable));
             
-            ApiResponse<Page<TerminalEDC>> response = ApiResponse.success(
+            ApiResponse<PageDto<TerminalEDCDto>> response = ApiResponse.success(
                 "Terminals retrieved successfully", terminals);
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                .eTag(TerminalValidators.etag(terminals.getContent(), terminals.getPage(), terminals.getSize(),
+                    terminals.getTotalElements(), terminals.getTotalPages()))
+                .cacheControl(TerminalValidators.REVALIDATE)
+                .body(response);
             
         } catch (Exception e) {
             logger.error("Error retrieving terminals", e);
-            ApiResponse<Page<TerminalEDC>> response = ApiResponse.error("Internal server error");
+            ApiResponse<PageDto<TerminalEDCDto>> response = ApiResponse.error("Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Bulk insert-or-update of terminals. The body is CSV with a header row or
+     * NDJSON with one terminal per line, optionally gzip-compressed
+     * (Content-Encoding: gzip), and is read as it arrives.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ApiResponse<TerminalImportResultDto>> importTerminals(
+            @RequestParam(defaultValue = TerminalImportService.CSV) String format,
+            HttpServletRequest request) {
+        
+        try {
+            terminalImportService.validateFormat(format);
+            
+            InputStream body = request.getInputStream();
+            if ("gzip".equalsIgnoreCase(request.getHeader("Content-Encoding"))) {
+                body = new GZIPInputStream(body);
+            }
+            TerminalImportResultDto result = terminalImportService.importTerminals(body, format);
+            
+            ApiResponse<TerminalImportResultDto> response = ApiResponse.success(
+                "Terminal import finished", result);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            ApiResponse<TerminalImportResultDto> response = ApiResponse.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            logger.error("Error importing terminals", e);
+            ApiResponse<TerminalImportResultDto> response = ApiResponse.error("Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<TerminalEDCDto>>> getTerminalPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(1000) int size) {
+        
+        try {
+            CursorPage<TerminalEDCDto> terminals = terminalService.getTerminalPage(cursor, size);
+            
+            ApiResponse<CursorPage<TerminalEDCDto>> response = ApiResponse.success(
+                "Terminals retrieved successfully", terminals);
+            
+            return ResponseEntity.ok()
+                .eTag(TerminalValidators.etag(terminals.getItems(), terminals.getNextCursor()))
+                .cacheControl(TerminalValidators.REVALIDATE)
+                .body(response);
+            
+        } catch (IllegalArgumentException e) {
+            ApiResponse<CursorPage<TerminalEDCDto>> response = ApiResponse.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            logger.error("Error retrieving terminal page", e);
+            ApiResponse<CursorPage<TerminalEDCDto>> response = ApiResponse.error("Internal server error");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
@@ -96,7 +178,11 @@ public class TerminalEDCController {
             if (terminal.isPresent()) {
                 ApiResponse<TerminalEDC> response = ApiResponse.success(
                     "Terminal found", terminal.get());
-                return ResponseEntity.ok(response);
+                return ResponseEntity.ok()
+                    .eTag(TerminalValidators.etag(terminal.get()))
+                    .lastModified(TerminalValidators.lastModified(terminal.get()))
+                    .cacheControl(TerminalValidators.REVALIDATE)
+                    .body(response);
             } else {
                 ApiResponse<TerminalEDC> response = ApiResponse.error(
                     "Terminal not found with ID: " + id);
@@ -118,7 +204,11 @@ public class TerminalEDCController {
             if (terminal.isPresent()) {
                 ApiResponse<TerminalEDC> response = ApiResponse.success(
                     "Terminal found", terminal.get());
-                return ResponseEntity.ok(response);
+                return ResponseEntity.ok()
+                    .eTag(TerminalValidators.etag(terminal.get()))
+                    .lastModified(TerminalValidators.lastModified(terminal.get()))
+                    .cacheControl(TerminalValidators.REVALIDATE)
+                    .body(response);
             } else {
                 ApiResponse<TerminalEDC> response = ApiResponse.error(
                     "Terminal not found with terminal ID: " + terminalId);
@@ -184,38 +274,132 @@ public class TerminalEDCController {
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<ApiResponse<List<TerminalEDC>>> getTerminalsByStatus(@PathVariable String status) {
+    public ResponseEntity<ApiResponse<List<TerminalEDCDto>>> getTerminalsByStatus(@PathVariable String status) {
         try {
-            List<TerminalEDC> terminals = terminalService.getTerminalsByStatus(status);
+            List<TerminalEDCDto> terminals = terminalService.getTerminalsByStatus(status);
             
-            ApiResponse<List<TerminalEDC>> response = ApiResponse.success(
+            ApiResponse<List<TerminalEDCDto>> response = ApiResponse.success(
                 "Terminals retrieved successfully", terminals);
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                .eTag(TerminalValidators.etag(terminals))
+                .cacheControl(TerminalValidators.REVALIDATE)
+                .body(response);
             
         } catch (Exception e) {
             logger.error("Error retrieving terminals by status: {}", status, e);
-            ApiResponse<List<TerminalEDC>> response = ApiResponse.error("Internal server error");
+            ApiResponse<List<TerminalEDCDto>> response = ApiResponse.error("Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/search/text")
+    public ResponseEntity<ApiResponse<CursorPage<TerminalEDCDto>>> searchTerminals(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        
+        try {
+            CursorPage<TerminalEDCDto> terminals = terminalService.searchTerminals(q, cursor, size);
+            
+            ApiResponse<CursorPage<TerminalEDCDto>> response = ApiResponse.success(
+                "Terminals retrieved successfully", terminals);
+            
+            return ResponseEntity.ok()
+                .eTag(TerminalValidators.etag(terminals.getItems(), terminals.getNextCursor()))
+                .cacheControl(TerminalValidators.REVALIDATE)
+                .body(response);
+            
+        } catch (IllegalArgumentException e) {
+            ApiResponse<CursorPage<TerminalEDCDto>> response = ApiResponse.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            logger.error("Error searching terminals: {}", q, e);
+            ApiResponse<CursorPage<TerminalEDCDto>> response = ApiResponse.error("Internal server error");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
 
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<TerminalEDC>>> searchTerminalsByLocation(
+    public ResponseEntity<ApiResponse<List<TerminalEDCDto>>> searchTerminalsByLocation(
             @RequestParam String location) {
         
         try {
-            List<TerminalEDC> terminals = terminalService.searchTerminalsByLocation(location);
+            List<TerminalEDCDto> terminals = terminalService.searchTerminalsByLocation(location);
             
-            ApiResponse<List<TerminalEDC>> response = ApiResponse.success(
+            ApiResponse<List<TerminalEDCDto>> response = ApiResponse.success(
                 "Terminals retrieved successfully", terminals);
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                .eTag(TerminalValidators.etag(terminals))
+                .cacheControl(TerminalValidators.REVALIDATE)
+                .body(response);
             
         } catch (Exception e) {
             logger.error("Error searching terminals by location: {}", location, e);
-            ApiResponse<List<TerminalEDC>> response = ApiResponse.error("Internal server error");
+            ApiResponse<List<TerminalEDCDto>> response = ApiResponse.error("Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/registry/stats")
+    public ResponseEntity<ApiResponse<TerminalRegistryStatsDto>> getRegistryStats() {
+        try {
+            ApiResponse<TerminalRegistryStatsDto> response = ApiResponse.success(
+                "Terminal registry statistics retrieved successfully", terminalService.getRegistryStats());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("Error retrieving terminal registry statistics", e);
+            ApiResponse<TerminalRegistryStatsDto> response = ApiResponse.error("Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/offline-events")
+    public ResponseEntity<ApiResponse<List<TerminalOfflineEventDto>>> getOfflineEvents(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        try {
+            ApiResponse<List<TerminalOfflineEventDto>> response = ApiResponse.success(
+                "Terminal offline events retrieved successfully", terminalService.getOfflineEvents(since));
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("Error retrieving terminal offline events", e);
+            ApiResponse<List<TerminalOfflineEventDto>> response = ApiResponse.error("Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/liveness/stats")
+    public ResponseEntity<ApiResponse<TerminalLivenessStatsDto>> getLivenessStats() {
+        try {
+            ApiResponse<TerminalLivenessStatsDto> response = ApiResponse.success(
+                "Terminal liveness statistics retrieved successfully", terminalService.getLivenessStats());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("Error retrieving terminal liveness statistics", e);
+            ApiResponse<TerminalLivenessStatsDto> response = ApiResponse.error("Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse<TerminalCacheStatsDto>> getCacheStats() {
+        try {
+            ApiResponse<TerminalCacheStatsDto> response = ApiResponse.success(
+                "Terminal cache statistics retrieved successfully", terminalService.getCacheStats());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("Error retrieving terminal cache statistics", e);
+            ApiResponse<TerminalCacheStatsDto> response = ApiResponse.error("Internal server error");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package com.example.edcmanagement.controller;
+
+import com.example.edcmanagement.dto.TerminalEDCDto;
+import com.example.edcmanagement.entity.TerminalEDC;
+import org.springframework.http.CacheControl;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+
+/**
+ * HTTP validators for terminal responses.
+ *
+ * ETags are an MD5 of every terminal field in the response body, so they
+ * change with bulk pings and offline transitions that never go through the
+ * entity. Returned as ResponseEntity headers, they let Spring MVC answer a
+ * matching If-None-Match or If-Modified-Since with 304 before the body is
+ * serialized.
+ */
+final class TerminalValidators {
+
+    // Clients may keep the body but must revalidate on every request
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private TerminalValidators() {
+    }
+
+    static String etag(TerminalEDC terminal) {
+        StringBuilder content = new StringBuilder(128);
+        append(content, terminal.getId(), terminal.getTerminalId(), terminal.getLocation(), terminal.getStatus(),
+            terminal.getMerchantName(), terminal.getIpAddress(), terminal.getPort(), terminal.getCreatedAt(),
+            terminal.getUpdatedAt(), terminal.getLastPing());
+        return digest(content);
+    }
+
+    /**
+     * @param page Whatever else the response carries, such as totals or the next cursor
+     */
+    static String etag(Collection<TerminalEDCDto> terminals, Object... page) {
+        StringBuilder content = new StringBuilder(128 * (terminals.size() + 1));
+        append(content, page);
+        for (TerminalEDCDto terminal : terminals) {
+            append(content, terminal.getId(), terminal.getTerminalId(), terminal.getLocation(), terminal.getStatus(),
+                terminal.getMerchantName(), terminal.getIpAddress(), terminal.getPort(), terminal.getCreatedAt(),
+                terminal.getUpdatedAt(), terminal.getLastPing());
+        }
+        return digest(content);
+    }
+
+    /**
+     * The latest of the creation, update and ping times, in epoch milliseconds.
+     */
+    static long lastModified(TerminalEDC terminal) {
+        LocalDateTime latest = terminal.getCreatedAt();
+        for (LocalDateTime time : new LocalDateTime[] { terminal.getUpdatedAt(), terminal.getLastPing() }) {
+            if (time != null && time.isAfter(latest)) {
+                latest = time;
+            }
+        }
+        return latest.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void append(StringBuilder content, Object... values) {
+        for (Object value : values) {
+            // Unit separator keeps adjacent fields from running together
+            content.append(value).append('\u001f');
+        }
+        content.append('\u001e');
+    }
+
+    private static String digest(StringBuilder content) {
+        return "\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -40,7 +40,8 @@ public class TestController {
         result.put("terminalId", terminalId);
         result.put("dateTime", requestDateTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
         result.put("signature", signature);
-        result.put("curlExample", generateCurlExample(terminalId, signature));
+        result.put("curlExample", generateCurlExample(terminalId, signature,
+            requestDateTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))));
 
         ApiResponse<Object> response = ApiResponse.success(
             "Signature generated successfully", result);
@@ -97,13 +98,14 @@ public class TestController {
         return ResponseEntity.ok(response);
     }
 
-    private String generateCurlExample(String terminalId, String signature) {
+    private String generateCurlExample(String terminalId, String signature, String requestTime) {
         return String.format(
             "curl -X POST http://localhost:8080/api/edc/echo \\\n" +
             "  -H \"Content-Type: application/json\" \\\n" +
             "  -H \"Signature: %s\" \\\n" +
+            "  -H \"Request-Time: %s\" \\\n" +
             "  -d '{\"terminalId\": \"%s\"}'",
-            signature, terminalId
+            signature, requestTime, terminalId
         );
     }
 }
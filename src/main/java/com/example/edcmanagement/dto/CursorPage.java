@@ -0,0 +1,26 @@
+package com.example.edcmanagement.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is passed back
+ * as {@code cursor} to fetch the following page and is null on the last page.
+ */
+public class CursorPage<T> {
+    private List<T> items;
+    private int size;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.size = items.size();
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    public List<T> getItems() { return items; }
+    public int getSize() { return size; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean isHasMore() { return hasMore; }
+}
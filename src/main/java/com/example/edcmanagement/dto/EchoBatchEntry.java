@@ -0,0 +1,42 @@
+package com.example.edcmanagement.dto;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+
+public class EchoBatchEntry {
+    @NotBlank(message = "Terminal ID is required")
+    @Size(max = 255, message = "Terminal ID must not exceed 255 characters")
+    private String terminalId;
+    
+    // Signing time (yyyy-MM-dd HH:mm:ss); optional, as for single echoes
+    private String requestTime;
+    
+    @NotBlank(message = "Signature is required")
+    private String signature;
+    
+    public EchoBatchEntry() {}
+    
+    public String getTerminalId() {
+        return terminalId;
+    }
+    
+    public void setTerminalId(String terminalId) {
+        this.terminalId = terminalId;
+    }
+    
+    public String getRequestTime() {
+        return requestTime;
+    }
+    
+    public void setRequestTime(String requestTime) {
+        this.requestTime = requestTime;
+    }
+    
+    public String getSignature() {
+        return signature;
+    }
+    
+    public void setSignature(String signature) {
+        this.signature = signature;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.edcmanagement.dto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+public class EchoBatchRequest {
+    @NotEmpty(message = "Entries are required")
+    @Size(max = 1000, message = "A batch may contain at most 1000 entries")
+    @Valid
+    private List<EchoBatchEntry> entries;
+    
+    public EchoBatchRequest() {}
+    
+    public List<EchoBatchEntry> getEntries() {
+        return entries;
+    }
+    
+    public void setEntries(List<EchoBatchEntry> entries) {
+        this.entries = entries;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.edcmanagement.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only echo log row for list endpoints, selected with a constructor
+ * expression so no managed entity is created.
+ */
+public class EchoLogDto {
+    private final Long id;
+    private final String terminalId;
+    private final LocalDateTime requestTimestamp;
+    private final String responseStatus;
+    private final String clientIp;
+    private final String userAgent;
+    private final Boolean signatureValid;
+    private final String errorMessage;
+
+    public EchoLogDto(Long id, String terminalId, LocalDateTime requestTimestamp, String responseStatus,
+                      String clientIp, String userAgent, Boolean signatureValid, String errorMessage) {
+        this.id = id;
+        this.terminalId = terminalId;
+        this.requestTimestamp = requestTimestamp;
+        this.responseStatus = responseStatus;
+        this.clientIp = clientIp;
+        this.userAgent = userAgent;
+        this.signatureValid = signatureValid;
+        this.errorMessage = errorMessage;
+    }
+
+    public Long getId() { return id; }
+    public String getTerminalId() { return terminalId; }
+    public LocalDateTime getRequestTimestamp() { return requestTimestamp; }
+    public String getResponseStatus() { return responseStatus; }
+    public String getClientIp() { return clientIp; }
+    public String getUserAgent() { return userAgent; }
+    public Boolean getSignatureValid() { return signatureValid; }
+    public String getErrorMessage() { return errorMessage; }
+}
@@ -0,0 +1,40 @@
+package com.example.edcmanagement.dto;
+
+public class EchoLogWriterStatsDto {
+    private boolean enabled;
+    private int queueDepth;
+    private int queueCapacity;
+    private long totalWritten;
+    private long totalFailed;
+    private long callerRuns;
+    private long flushCount;
+    private double lastFlushMillis;
+    private double maxFlushMillis;
+    private double avgFlushMillis;
+
+    public EchoLogWriterStatsDto(boolean enabled, int queueDepth, int queueCapacity,
+                                 long totalWritten, long totalFailed, long callerRuns, long flushCount,
+                                 double lastFlushMillis, double maxFlushMillis, double avgFlushMillis) {
+        this.enabled = enabled;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.totalWritten = totalWritten;
+        this.totalFailed = totalFailed;
+        this.callerRuns = callerRuns;
+        this.flushCount = flushCount;
+        this.lastFlushMillis = lastFlushMillis;
+        this.maxFlushMillis = maxFlushMillis;
+        this.avgFlushMillis = avgFlushMillis;
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public int getQueueDepth() { return queueDepth; }
+    public int getQueueCapacity() { return queueCapacity; }
+    public long getTotalWritten() { return totalWritten; }
+    public long getTotalFailed() { return totalFailed; }
+    public long getCallerRuns() { return callerRuns; }
+    public long getFlushCount() { return flushCount; }
+    public double getLastFlushMillis() { return lastFlushMillis; }
+    public double getMaxFlushMillis() { return maxFlushMillis; }
+    public double getAvgFlushMillis() { return avgFlushMillis; }
+}
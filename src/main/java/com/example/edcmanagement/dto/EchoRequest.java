@@ -1,13 +1,18 @@
 package com.example.edcmanagement.dto;
 
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
 // import jakarta.validation.constraints.NotNull;
 // import java.time.LocalDateTime;
 
 public class EchoRequest {
     @NotBlank(message = "Terminal ID is required")
+    @Size(max = 255, message = "Terminal ID must not exceed 255 characters")
     private String terminalId;
     
+    // Signing time (yyyy-MM-dd HH:mm:ss); optional, the Request-Time header takes precedence
+    private String requestTime;
+    
     public EchoRequest() {}
     
     public String getTerminalId() {
@@ -17,4 +22,12 @@ public class EchoRequest {
     public void setTerminalId(String terminalId) {
         this.terminalId = terminalId;
     }
+    
+    public String getRequestTime() {
+        return requestTime;
+    }
+    
+    public void setRequestTime(String requestTime) {
+        this.requestTime = requestTime;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.example.edcmanagement.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class EchoTimeseriesDto {
+    private String terminalId;
+    private String granularity;
+    private long stepSeconds;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private List<EchoTimeseriesPointDto> points;
+
+    public EchoTimeseriesDto(String terminalId, String granularity, long stepSeconds,
+                             LocalDateTime startTime, LocalDateTime endTime,
+                             List<EchoTimeseriesPointDto> points) {
+        this.terminalId = terminalId;
+        this.granularity = granularity;
+        this.stepSeconds = stepSeconds;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.points = points;
+    }
+
+    public String getTerminalId() { return terminalId; }
+    public String getGranularity() { return granularity; }
+    public long getStepSeconds() { return stepSeconds; }
+    public LocalDateTime getStartTime() { return startTime; }
+    public LocalDateTime getEndTime() { return endTime; }
+    public List<EchoTimeseriesPointDto> getPoints() { return points; }
+}
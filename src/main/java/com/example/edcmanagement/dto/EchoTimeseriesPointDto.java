@@ -0,0 +1,33 @@
+package com.example.edcmanagement.dto;
+
+import java.time.LocalDateTime;
+
+public class EchoTimeseriesPointDto {
+    private LocalDateTime bucketStart;
+    private long echoCount;
+    private long successCount;
+    private long unauthorizedCount;
+    private long notFoundCount;
+    private LocalDateTime firstEcho;
+    private LocalDateTime lastEcho;
+
+    public EchoTimeseriesPointDto(LocalDateTime bucketStart, long echoCount, long successCount,
+                                  long unauthorizedCount, long notFoundCount,
+                                  LocalDateTime firstEcho, LocalDateTime lastEcho) {
+        this.bucketStart = bucketStart;
+        this.echoCount = echoCount;
+        this.successCount = successCount;
+        this.unauthorizedCount = unauthorizedCount;
+        this.notFoundCount = notFoundCount;
+        this.firstEcho = firstEcho;
+        this.lastEcho = lastEcho;
+    }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public long getEchoCount() { return echoCount; }
+    public long getSuccessCount() { return successCount; }
+    public long getUnauthorizedCount() { return unauthorizedCount; }
+    public long getNotFoundCount() { return notFoundCount; }
+    public LocalDateTime getFirstEcho() { return firstEcho; }
+    public LocalDateTime getLastEcho() { return lastEcho; }
+}
@@ -0,0 +1,32 @@
+package com.example.edcmanagement.dto;
+
+import java.time.LocalDateTime;
+
+public class FlightRecordingStatusDto {
+    private String state;
+    private String settings;
+    private LocalDateTime startTime;
+    private Long durationSeconds;
+    private long maxAgeSeconds;
+    private long maxSizeBytes;
+    private long sizeBytes;
+
+    public FlightRecordingStatusDto(String state, String settings, LocalDateTime startTime, Long durationSeconds,
+                                    long maxAgeSeconds, long maxSizeBytes, long sizeBytes) {
+        this.state = state;
+        this.settings = settings;
+        this.startTime = startTime;
+        this.durationSeconds = durationSeconds;
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.maxSizeBytes = maxSizeBytes;
+        this.sizeBytes = sizeBytes;
+    }
+
+    public String getState() { return state; }
+    public String getSettings() { return settings; }
+    public LocalDateTime getStartTime() { return startTime; }
+    public Long getDurationSeconds() { return durationSeconds; }
+    public long getMaxAgeSeconds() { return maxAgeSeconds; }
+    public long getMaxSizeBytes() { return maxSizeBytes; }
+    public long getSizeBytes() { return sizeBytes; }
+}
@@ -0,0 +1,36 @@
+package com.example.edcmanagement.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Slim page envelope: the content plus the numbers clients use, without the
+ * pageable and sort details that Spring's Page serializes.
+ */
+public class PageDto<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+
+    public PageDto(List<T> content, int page, int size, long totalElements, int totalPages) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+    }
+
+    public static <T> PageDto<T> of(Page<T> page) {
+        return new PageDto<>(page.getContent(), page.getNumber(), page.getSize(),
+            page.getTotalElements(), page.getTotalPages());
+    }
+
+    public List<T> getContent() { return content; }
+    public int getPage() { return page; }
+    public int getSize() { return size; }
+    public long getTotalElements() { return totalElements; }
+    public int getTotalPages() { return totalPages; }
+}
@@ -0,0 +1,51 @@
+package com.example.edcmanagement.dto;
+
+public class TerminalCacheStatsDto {
+    // Hit and miss counts stay at zero unless app.terminal.cache.statistics-enabled is set
+    private boolean statisticsEnabled;
+    private long entityHits;
+    private long entityMisses;
+    private long entityPuts;
+    private double entityHitRate;
+    private long naturalIdHits;
+    private long naturalIdMisses;
+    private double naturalIdHitRate;
+    private long queryHits;
+    private long queryMisses;
+    private double queryHitRate;
+    private long evictions;
+
+    public TerminalCacheStatsDto(boolean statisticsEnabled, long entityHits, long entityMisses, long entityPuts,
+                                 long naturalIdHits, long naturalIdMisses,
+                                 long queryHits, long queryMisses, long evictions) {
+        this.statisticsEnabled = statisticsEnabled;
+        this.entityHits = entityHits;
+        this.entityMisses = entityMisses;
+        this.entityPuts = entityPuts;
+        this.entityHitRate = hitRate(entityHits, entityMisses);
+        this.naturalIdHits = naturalIdHits;
+        this.naturalIdMisses = naturalIdMisses;
+        this.naturalIdHitRate = hitRate(naturalIdHits, naturalIdMisses);
+        this.queryHits = queryHits;
+        this.queryMisses = queryMisses;
+        this.queryHitRate = hitRate(queryHits, queryMisses);
+        this.evictions = evictions;
+    }
+
+    private static double hitRate(long hits, long misses) {
+        return hits + misses > 0 ? (double) hits / (hits + misses) * 100 : 0.0;
+    }
+
+    public boolean isStatisticsEnabled() { return statisticsEnabled; }
+    public long getEntityHits() { return entityHits; }
+    public long getEntityMisses() { return entityMisses; }
+    public long getEntityPuts() { return entityPuts; }
+    public double getEntityHitRate() { return entityHitRate; }
+    public long getNaturalIdHits() { return naturalIdHits; }
+    public long getNaturalIdMisses() { return naturalIdMisses; }
+    public double getNaturalIdHitRate() { return naturalIdHitRate; }
+    public long getQueryHits() { return queryHits; }
+    public long getQueryMisses() { return queryMisses; }
+    public double getQueryHitRate() { return queryHitRate; }
+    public long getEvictions() { return evictions; }
+}
@@ -0,0 +1,46 @@
+package com.example.edcmanagement.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only terminal row for list endpoints, selected with a constructor
+ * expression so no managed entity is created.
+ */
+public class TerminalEDCDto {
+    private final Long id;
+    private final String terminalId;
+    private final String location;
+    private final String status;
+    private final String merchantName;
+    private final String ipAddress;
+    private final Integer port;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final LocalDateTime lastPing;
+
+    public TerminalEDCDto(Long id, String terminalId, String location, String status, String merchantName,
+                          String ipAddress, Integer port, LocalDateTime createdAt, LocalDateTime updatedAt,
+                          LocalDateTime lastPing) {
+        this.id = id;
+        this.terminalId = terminalId;
+        this.location = location;
+        this.status = status;
+        this.merchantName = merchantName;
+        this.ipAddress = ipAddress;
+        this.port = port;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.lastPing = lastPing;
+    }
+
+    public Long getId() { return id; }
+    public String getTerminalId() { return terminalId; }
+    public String getLocation() { return location; }
+    public String getStatus() { return status; }
+    public String getMerchantName() { return merchantName; }
+    public String getIpAddress() { return ipAddress; }
+    public Integer getPort() { return port; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public LocalDateTime getLastPing() { return lastPing; }
+}
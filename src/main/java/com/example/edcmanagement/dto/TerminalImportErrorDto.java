@@ -0,0 +1,17 @@
+package com.example.edcmanagement.dto;
+
+public class TerminalImportErrorDto {
+    private final long line;
+    private final String terminalId;
+    private final String message;
+
+    public TerminalImportErrorDto(long line, String terminalId, String message) {
+        this.line = line;
+        this.terminalId = terminalId;
+        this.message = message;
+    }
+
+    public long getLine() { return line; }
+    public String getTerminalId() { return terminalId; }
+    public String getMessage() { return message; }
+}
@@ -0,0 +1,34 @@
+package com.example.edcmanagement.dto;
+
+import java.util.List;
+
+public class TerminalImportResultDto {
+    private long totalRows;
+    // Inserted or changed
+    private long upserted;
+    // Already stored with the same values
+    private long unchanged;
+    private long failed;
+    private long elapsedMillis;
+    private List<TerminalImportErrorDto> errors;
+    private boolean errorsTruncated;
+
+    public TerminalImportResultDto(long totalRows, long upserted, long unchanged, long failed, long elapsedMillis,
+                                   List<TerminalImportErrorDto> errors, boolean errorsTruncated) {
+        this.totalRows = totalRows;
+        this.upserted = upserted;
+        this.unchanged = unchanged;
+        this.failed = failed;
+        this.elapsedMillis = elapsedMillis;
+        this.errors = errors;
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public long getTotalRows() { return totalRows; }
+    public long getUpserted() { return upserted; }
+    public long getUnchanged() { return unchanged; }
+    public long getFailed() { return failed; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public List<TerminalImportErrorDto> getErrors() { return errors; }
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+}
@@ -0,0 +1,21 @@
+package com.example.edcmanagement.dto;
+
+public class TerminalLivenessStatsDto {
+    private boolean enabled;
+    private long timeoutSeconds;
+    private int trackedTerminals;
+    private long offlineTransitions;
+
+    public TerminalLivenessStatsDto(boolean enabled, long timeoutSeconds, int trackedTerminals,
+                                    long offlineTransitions) {
+        this.enabled = enabled;
+        this.timeoutSeconds = timeoutSeconds;
+        this.trackedTerminals = trackedTerminals;
+        this.offlineTransitions = offlineTransitions;
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public long getTimeoutSeconds() { return timeoutSeconds; }
+    public int getTrackedTerminals() { return trackedTerminals; }
+    public long getOfflineTransitions() { return offlineTransitions; }
+}
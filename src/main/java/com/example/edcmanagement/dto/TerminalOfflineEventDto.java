@@ -0,0 +1,23 @@
+package com.example.edcmanagement.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A terminal moved from ACTIVE to OFFLINE after missing its heartbeat. Also
+ * published as an application event.
+ */
+public class TerminalOfflineEventDto {
+    private final String terminalId;
+    private final LocalDateTime lastPing;
+    private final LocalDateTime offlineAt;
+
+    public TerminalOfflineEventDto(String terminalId, LocalDateTime lastPing, LocalDateTime offlineAt) {
+        this.terminalId = terminalId;
+        this.lastPing = lastPing;
+        this.offlineAt = offlineAt;
+    }
+
+    public String getTerminalId() { return terminalId; }
+    public LocalDateTime getLastPing() { return lastPing; }
+    public LocalDateTime getOfflineAt() { return offlineAt; }
+}
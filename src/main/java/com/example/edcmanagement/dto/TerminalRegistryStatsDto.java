@@ -0,0 +1,31 @@
+package com.example.edcmanagement.dto;
+
+public class TerminalRegistryStatsDto {
+    private boolean loaded;
+    private int size;
+    private int capacity;
+    private long memoryBytes;
+    private long hits;
+    private long misses;
+    private double hitRate;
+
+    public TerminalRegistryStatsDto(boolean loaded, int size, int capacity, long memoryBytes,
+                                    long hits, long misses) {
+        this.loaded = loaded;
+        this.size = size;
+        this.capacity = capacity;
+        this.memoryBytes = memoryBytes;
+        this.hits = hits;
+        this.misses = misses;
+        this.hitRate = hits + misses > 0 ?
+            (double) hits / (hits + misses) * 100 : 0.0;
+    }
+
+    public boolean isLoaded() { return loaded; }
+    public int getSize() { return size; }
+    public int getCapacity() { return capacity; }
+    public long getMemoryBytes() { return memoryBytes; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public double getHitRate() { return hitRate; }
+}
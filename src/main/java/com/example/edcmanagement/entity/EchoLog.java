@@ -6,11 +6,19 @@ import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "echo_log")
+@Table(name = "echo_log", indexes = {
+    @Index(name = "idx_echo_log_terminal_ts", columnList = "terminal_id, request_timestamp desc"),
+    @Index(name = "idx_echo_log_ts_id", columnList = "request_timestamp, id")
+})
 public class EchoLog {
     
+    // Length of the varchar columns below; longer values would fail the whole insert batch
+    public static final int MAX_TEXT_LENGTH = 255;
+    
+    // Pooled sequence (allocationSize = increment of echo_log_id_seq) so inserts can be JDBC batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "echo_log_seq")
+    @SequenceGenerator(name = "echo_log_seq", sequenceName = "echo_log_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "terminal_id", nullable = false)
@@ -43,7 +51,16 @@ public class EchoLog {
     
     public EchoLog(String terminalId) {
         this();
-        this.terminalId = terminalId;
+        setTerminalId(terminalId);
+    }
+    
+    /**
+     * Cuts a value to the column length. Terminal IDs, user agents and error
+     * messages come from unauthenticated requests, and one oversized value
+     * must not cost the rest of its batch.
+     */
+    public static String truncate(String value) {
+        return value != null && value.length() > MAX_TEXT_LENGTH ? value.substring(0, MAX_TEXT_LENGTH) : value;
     }
     
     // Getters and Setters
@@ -60,7 +77,7 @@ public class EchoLog {
     }
     
     public void setTerminalId(String terminalId) {
-        this.terminalId = terminalId;
+        this.terminalId = truncate(terminalId);
     }
     
     public LocalDateTime getRequestTimestamp() {
@@ -76,7 +93,7 @@ public class EchoLog {
     }
     
     public void setResponseStatus(String responseStatus) {
-        this.responseStatus = responseStatus;
+        this.responseStatus = truncate(responseStatus);
     }
     
     public String getClientIp() {
@@ -84,7 +101,7 @@ public class EchoLog {
     }
     
     public void setClientIp(String clientIp) {
-        this.clientIp = clientIp;
+        this.clientIp = truncate(clientIp);
     }
     
     public String getUserAgent() {
@@ -92,7 +109,7 @@ public class EchoLog {
     }
     
     public void setUserAgent(String userAgent) {
-        this.userAgent = userAgent;
+        this.userAgent = truncate(userAgent);
     }
     
     public Boolean getSignatureValid() {
@@ -108,6 +125,6 @@ public class EchoLog {
     }
     
     public void setErrorMessage(String errorMessage) {
-        this.errorMessage = errorMessage;
+        this.errorMessage = truncate(errorMessage);
     }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.edcmanagement.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Running echo_log totals, maintained by EchoLogStatistics so statistics
+ * never have to count echo_log itself.
+ */
+@Entity
+@Table(name = "echo_log_stats")
+public class EchoLogStats {
+
+    @Id
+    @Column(name = "stats_key", length = 50)
+    private String statsKey;
+
+    @Column(name = "total_logs", nullable = false)
+    private long totalLogs;
+
+    @Column(name = "valid_signatures", nullable = false)
+    private long validSignatures;
+
+    @Column(name = "invalid_signatures", nullable = false)
+    private long invalidSignatures;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public EchoLogStats() {
+    }
+
+    // Getters and Setters
+    public String getStatsKey() {
+        return statsKey;
+    }
+
+    public void setStatsKey(String statsKey) {
+        this.statsKey = statsKey;
+    }
+
+    public long getTotalLogs() {
+        return totalLogs;
+    }
+
+    public void setTotalLogs(long totalLogs) {
+        this.totalLogs = totalLogs;
+    }
+
+    public long getValidSignatures() {
+        return validSignatures;
+    }
+
+    public void setValidSignatures(long validSignatures) {
+        this.validSignatures = validSignatures;
+    }
+
+    public long getInvalidSignatures() {
+        return invalidSignatures;
+    }
+
+    public void setInvalidSignatures(long invalidSignatures) {
+        this.invalidSignatures = invalidSignatures;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.edcmanagement.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Echo counts of one terminal (or of the whole fleet, terminal ID "*") in one
+ * minute or hour bucket. Maintained by EchoRollupService.
+ */
+@Entity
+// Series reads (granularity, terminal, time range) use the primary key index
+@Table(name = "echo_rollup")
+@IdClass(EchoRollupId.class)
+public class EchoRollup {
+
+    public static final String MINUTE = "MINUTE";
+    public static final String HOUR = "HOUR";
+    public static final String FLEET = "*";
+
+    @Id
+    @Column(name = "granularity", length = 10)
+    private String granularity;
+
+    @Id
+    @Column(name = "terminal_id")
+    private String terminalId;
+
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Column(name = "echo_count", nullable = false)
+    private long echoCount;
+
+    @Column(name = "success_count", nullable = false)
+    private long successCount;
+
+    @Column(name = "unauthorized_count", nullable = false)
+    private long unauthorizedCount;
+
+    @Column(name = "not_found_count", nullable = false)
+    private long notFoundCount;
+
+    @Column(name = "first_echo")
+    private LocalDateTime firstEcho;
+
+    @Column(name = "last_echo")
+    private LocalDateTime lastEcho;
+
+    // Constructors
+    public EchoRollup() {
+    }
+
+    // Getters and Setters
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public String getTerminalId() {
+        return terminalId;
+    }
+
+    public void setTerminalId(String terminalId) {
+        this.terminalId = terminalId;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getEchoCount() {
+        return echoCount;
+    }
+
+    public void setEchoCount(long echoCount) {
+        this.echoCount = echoCount;
+    }
+
+    public long getSuccessCount() {
+        return successCount;
+    }
+
+    public void setSuccessCount(long successCount) {
+        this.successCount = successCount;
+    }
+
+    public long getUnauthorizedCount() {
+        return unauthorizedCount;
+    }
+
+    public void setUnauthorizedCount(long unauthorizedCount) {
+        this.unauthorizedCount = unauthorizedCount;
+    }
+
+    public long getNotFoundCount() {
+        return notFoundCount;
+    }
+
+    public void setNotFoundCount(long notFoundCount) {
+        this.notFoundCount = notFoundCount;
+    }
+
+    public LocalDateTime getFirstEcho() {
+        return firstEcho;
+    }
+
+    public void setFirstEcho(LocalDateTime firstEcho) {
+        this.firstEcho = firstEcho;
+    }
+
+    public LocalDateTime getLastEcho() {
+        return lastEcho;
+    }
+
+    public void setLastEcho(LocalDateTime lastEcho) {
+        this.lastEcho = lastEcho;
+    }
+}
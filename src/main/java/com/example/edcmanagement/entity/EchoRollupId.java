@@ -0,0 +1,42 @@
+package com.example.edcmanagement.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public class EchoRollupId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String granularity;
+    private String terminalId;
+    private LocalDateTime bucketStart;
+
+    public EchoRollupId() {
+    }
+
+    public EchoRollupId(String granularity, String terminalId, LocalDateTime bucketStart) {
+        this.granularity = granularity;
+        this.terminalId = terminalId;
+        this.bucketStart = bucketStart;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EchoRollupId)) {
+            return false;
+        }
+        EchoRollupId other = (EchoRollupId) o;
+        return Objects.equals(granularity, other.granularity)
+            && Objects.equals(terminalId, other.terminalId)
+            && Objects.equals(bucketStart, other.bucketStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(granularity, terminalId, bucketStart);
+    }
+}
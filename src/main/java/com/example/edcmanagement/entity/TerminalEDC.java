@@ -1,5 +1,10 @@
 package com.example.edcmanagement.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -7,12 +12,21 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "terminal_edc")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = TerminalEDC.CACHE_REGION)
+@NaturalIdCache(region = TerminalEDC.NATURAL_ID_CACHE_REGION)
 public class TerminalEDC {
     
+    // Second-level cache regions, created in HibernateCacheConfig
+    public static final String CACHE_REGION = "terminal";
+    public static final String NATURAL_ID_CACHE_REGION = "terminal-natural-id";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    // Mutable: updateTerminal may rename a terminal
+    @NaturalId(mutable = true)
     @Column(name = "terminal_id", unique = true, nullable = false)
     @NotBlank(message = "Terminal ID is required")
     private String terminalId;
@@ -1,5 +1,6 @@
 package com.example.edcmanagement.repository;
 
+import com.example.edcmanagement.dto.EchoLogDto;
 import com.example.edcmanagement.entity.EchoLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -14,18 +15,56 @@ import java.util.List;
 @Repository
 public interface EchoLogRepository extends JpaRepository<EchoLog, Long> {
     
-    List<EchoLog> findByTerminalIdOrderByRequestTimestampDesc(String terminalId);
+    // List queries select EchoLogDto rows directly instead of managed entities
+    String ECHO_LOG_DTO = "SELECT new com.example.edcmanagement.dto.EchoLogDto(e.id, e.terminalId, " +
+                          "e.requestTimestamp, e.responseStatus, e.clientIp, e.userAgent, e.signatureValid, " +
+                          "e.errorMessage) FROM EchoLog e ";
     
-    Page<EchoLog> findByTerminalIdOrderByRequestTimestampDesc(String terminalId, Pageable pageable);
+    @Query(value = ECHO_LOG_DTO,
+           countQuery = "SELECT COUNT(e) FROM EchoLog e")
+    Page<EchoLogDto> findAllDtos(Pageable pageable);
     
-    List<EchoLog> findByRequestTimestampBetween(LocalDateTime startTime, LocalDateTime endTime);
+    @Query(ECHO_LOG_DTO + "WHERE e.terminalId = :terminalId ORDER BY e.requestTimestamp DESC")
+    List<EchoLogDto> findDtosByTerminalId(@Param("terminalId") String terminalId);
     
-    @Query("SELECT e FROM EchoLog e WHERE e.terminalId = :terminalId " +
+    @Query(value = ECHO_LOG_DTO + "WHERE e.terminalId = :terminalId ORDER BY e.requestTimestamp DESC",
+           countQuery = "SELECT COUNT(e) FROM EchoLog e WHERE e.terminalId = :terminalId")
+    Page<EchoLogDto> findDtosByTerminalId(@Param("terminalId") String terminalId, Pageable pageable);
+    
+    @Query(ECHO_LOG_DTO + "WHERE e.requestTimestamp BETWEEN :startTime AND :endTime")
+    List<EchoLogDto> findDtosByRequestTimestampBetween(@Param("startTime") LocalDateTime startTime,
+                                                       @Param("endTime") LocalDateTime endTime);
+    
+    @Query(ECHO_LOG_DTO + "WHERE e.terminalId = :terminalId " +
            "AND e.requestTimestamp BETWEEN :startTime AND :endTime " +
            "ORDER BY e.requestTimestamp DESC")
-    List<EchoLog> findByTerminalIdAndTimestampRange(@Param("terminalId") String terminalId,
-                                                   @Param("startTime") LocalDateTime startTime,
-                                                   @Param("endTime") LocalDateTime endTime);
+    List<EchoLogDto> findDtosByTerminalIdAndTimestampRange(@Param("terminalId") String terminalId,
+                                                          @Param("startTime") LocalDateTime startTime,
+                                                          @Param("endTime") LocalDateTime endTime);
+    
+    // Keyset pages, newest first. The redundant "<=" gives the index scan its start key.
+    @Query(ECHO_LOG_DTO + "ORDER BY e.requestTimestamp DESC, e.id DESC")
+    List<EchoLogDto> findFirstPage(Pageable pageable);
+    
+    @Query(ECHO_LOG_DTO + "WHERE e.requestTimestamp <= :timestamp " +
+           "AND (e.requestTimestamp < :timestamp OR e.id < :id) " +
+           "ORDER BY e.requestTimestamp DESC, e.id DESC")
+    List<EchoLogDto> findPageBefore(@Param("timestamp") LocalDateTime timestamp,
+                                    @Param("id") Long id,
+                                    Pageable pageable);
+    
+    @Query(ECHO_LOG_DTO + "WHERE e.terminalId = :terminalId " +
+           "ORDER BY e.requestTimestamp DESC, e.id DESC")
+    List<EchoLogDto> findFirstPageByTerminalId(@Param("terminalId") String terminalId, Pageable pageable);
+    
+    @Query(ECHO_LOG_DTO + "WHERE e.terminalId = :terminalId " +
+           "AND e.requestTimestamp <= :timestamp " +
+           "AND (e.requestTimestamp < :timestamp OR e.id < :id) " +
+           "ORDER BY e.requestTimestamp DESC, e.id DESC")
+    List<EchoLogDto> findPageByTerminalIdBefore(@Param("terminalId") String terminalId,
+                                                @Param("timestamp") LocalDateTime timestamp,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
     
     long countByTerminalId(String terminalId);
     
@@ -0,0 +1,29 @@
+package com.example.edcmanagement.repository;
+
+import com.example.edcmanagement.entity.EchoRollup;
+import com.example.edcmanagement.entity.EchoRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EchoRollupRepository extends JpaRepository<EchoRollup, EchoRollupId> {
+    
+    @Query("SELECT r FROM EchoRollup r WHERE r.granularity = :granularity AND r.terminalId = :terminalId " +
+           "AND r.bucketStart >= :startTime AND r.bucketStart < :endTime " +
+           "ORDER BY r.bucketStart")
+    List<EchoRollup> findSeries(@Param("granularity") String granularity,
+                                @Param("terminalId") String terminalId,
+                                @Param("startTime") LocalDateTime startTime,
+                                @Param("endTime") LocalDateTime endTime);
+    
+    @Modifying
+    @Query("DELETE FROM EchoRollup r WHERE r.granularity = :granularity AND r.bucketStart < :before")
+    int deleteByGranularityAndBucketStartBefore(@Param("granularity") String granularity,
+                                                @Param("before") LocalDateTime before);
+}
@@ -1,11 +1,17 @@
 package com.example.edcmanagement.repository;
 
+import com.example.edcmanagement.dto.TerminalEDCDto;
 import com.example.edcmanagement.entity.TerminalEDC;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,7 +26,34 @@ public interface TerminalEDCRepository extends JpaRepository<TerminalEDC, Long>
 
     List<TerminalEDC> findByStatusAndLocationContainingIgnoreCase(String status, String location);
     
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Page<TerminalEDC> findByStatusOrderByCreatedAtDesc(String status, Pageable pageable);
     
     boolean existsByTerminalId(String terminalId);
+    
+    @Query("SELECT t.terminalId FROM TerminalEDC t WHERE t.terminalId IN :terminalIds")
+    List<String> findTerminalIdsIn(@Param("terminalIds") Collection<String> terminalIds);
+    
+    // Status queries go through the Hibernate query cache
+    String HINT_CACHEABLE = "org.hibernate.cacheable";
+    
+    // List queries select TerminalEDCDto rows directly instead of managed entities
+    String TERMINAL_DTO = "SELECT new com.example.edcmanagement.dto.TerminalEDCDto(t.id, t.terminalId, " +
+                          "t.location, t.status, t.merchantName, t.ipAddress, t.port, t.createdAt, " +
+                          "t.updatedAt, t.lastPing) FROM TerminalEDC t ";
+    
+    @Query(value = TERMINAL_DTO,
+           countQuery = "SELECT COUNT(t) FROM TerminalEDC t")
+    Page<TerminalEDCDto> findAllDtos(Pageable pageable);
+    
+    @Query(TERMINAL_DTO + "WHERE t.status = :status")
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<TerminalEDCDto> findDtosByStatus(@Param("status") String status);
+    
+    // Keyset pages on the primary key, newest first
+    @Query(TERMINAL_DTO + "ORDER BY t.id DESC")
+    List<TerminalEDCDto> findFirstPage(Pageable pageable);
+    
+    @Query(TERMINAL_DTO + "WHERE t.id < :id ORDER BY t.id DESC")
+    List<TerminalEDCDto> findPageBefore(@Param("id") Long id, Pageable pageable);
 }
@@ -0,0 +1,218 @@
+package com.example.edcmanagement.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams echo logs as NDJSON or CSV.
+ *
+ * Rows are read through a server-side cursor ({@code fetch-size} rows at a
+ * time) and written to the output as they arrive, without creating entities,
+ * so memory use does not depend on the size of the export.
+ */
+@Service
+public class EchoLogExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EchoLogExportService.class);
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private static final String[] COLUMNS = {
+        "id", "terminalId", "requestTimestamp", "responseStatus",
+        "clientIp", "userAgent", "signatureValid", "errorMessage"
+    };
+
+    private static final String SELECT_SQL =
+        "SELECT id, terminal_id, request_timestamp, response_status, client_ip, user_agent, " +
+        "       signature_valid, error_message " +
+        "FROM echo_log WHERE request_timestamp >= ? AND request_timestamp < ?";
+
+    // Push what has been written so far to the client every this many rows
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.echo-log.export.fetch-size:1000}")
+    private int fetchSize;
+
+    private JdbcTemplate streamingTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        // PostgreSQL only streams with a fetch size inside a transaction
+        streamingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingTemplate.setFetchSize(fetchSize);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Checks export parameters up front, before anything is written to the response.
+     * @throws IllegalArgumentException if the format or time range is invalid
+     */
+    public void validateRequest(LocalDateTime startTime, LocalDateTime endTime, String format) {
+        if (!NDJSON.equals(format) && !CSV.equals(format)) {
+            throw new IllegalArgumentException("Format must be ndjson or csv");
+        }
+        if (!endTime.isAfter(startTime)) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+    }
+
+    /**
+     * Writes the echo logs of [startTime, endTime), optionally of one terminal,
+     * in request order.
+     * @return the number of rows written
+     */
+    public long export(String terminalId, LocalDateTime startTime, LocalDateTime endTime,
+                       String format, OutputStream out) throws IOException {
+        validateRequest(startTime, endTime, format);
+
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> params = new ArrayList<>();
+        params.add(Timestamp.valueOf(startTime));
+        params.add(Timestamp.valueOf(endTime));
+        if (terminalId != null) {
+            sql.append(" AND terminal_id = ?");
+            params.add(terminalId);
+        }
+        sql.append(" ORDER BY request_timestamp, id");
+
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        RowWriter rowWriter = NDJSON.equals(format)
+            ? new NdjsonRowWriter(objectMapper.getFactory().createGenerator(writer), writer)
+            : new CsvRowWriter(writer);
+
+        long start = System.currentTimeMillis();
+        long[] rows = new long[1];
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                streamingTemplate.query(sql.toString(), (RowCallbackHandler) rs -> {
+                    try {
+                        rowWriter.write(rs);
+                        // The first row goes out right away, then in chunks
+                        if (++rows[0] == 1 || rows[0] % FLUSH_EVERY_ROWS == 0) {
+                            writer.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, params.toArray()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        logger.info("Exported {} echo logs as {} in {} ms", rows[0], format, System.currentTimeMillis() - start);
+        return rows[0];
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final Writer writer;
+
+        NdjsonRowWriter(JsonGenerator generator, Writer writer) {
+            this.generator = generator;
+            // Rows are separated by newlines; flushing is left to the export loop
+            this.generator.setRootValueSeparator(null);
+            this.generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField(COLUMNS[0], rs.getLong(1));
+            generator.writeStringField(COLUMNS[1], rs.getString(2));
+            Timestamp timestamp = rs.getTimestamp(3);
+            generator.writeStringField(COLUMNS[2], timestamp != null ? timestamp.toLocalDateTime().toString() : null);
+            generator.writeStringField(COLUMNS[3], rs.getString(4));
+            generator.writeStringField(COLUMNS[4], rs.getString(5));
+            generator.writeStringField(COLUMNS[5], rs.getString(6));
+            boolean signatureValid = rs.getBoolean(7);
+            if (rs.wasNull()) {
+                generator.writeNullField(COLUMNS[6]);
+            } else {
+                generator.writeBooleanField(COLUMNS[6], signatureValid);
+            }
+            generator.writeStringField(COLUMNS[7], rs.getString(8));
+            generator.writeEndObject();
+            generator.flush();
+            writer.write('\n');
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+            writer.flush();
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int column = 1; column <= COLUMNS.length; column++) {
+                if (column > 1) {
+                    writer.write(',');
+                }
+                Object value = column == 3 && rs.getTimestamp(3) != null
+                    ? rs.getTimestamp(3).toLocalDateTime() : rs.getObject(column);
+                if (value != null) {
+                    writeField(value.toString());
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        // RFC 4180 quoting
+        private void writeField(String value) throws IOException {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
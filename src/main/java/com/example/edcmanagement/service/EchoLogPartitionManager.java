@@ -0,0 +1,195 @@
+package com.example.edcmanagement.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Manages echo_log as a table range-partitioned on request_timestamp.
+ *
+ * At startup the table is converted once (see db/echo_log_partitioning.sql)
+ * and the parent indexes are checked.
+ * A daily job then keeps {@code premake} DAILY or MONTHLY partitions ahead of
+ * today and detaches (and by default drops) partitions whose whole range is
+ * older than {@code retention-days}, so retention never deletes rows one by one.
+ */
+@Component
+public class EchoLogPartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(EchoLogPartitionManager.class);
+
+    private static final String CONVERSION_SCRIPT = "db/echo_log_partitioning.sql";
+
+    private static final String DEFAULT_PARTITION = "echo_log_default";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+
+    private static final String PARTITIONS_SQL =
+        "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) " +
+        "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+        "WHERE i.inhparent = to_regclass('echo_log')";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.echo-log.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.echo-log.partitioning.interval:DAILY}")
+    private String interval;
+
+    @Value("${app.echo-log.partitioning.premake:7}")
+    private int premake;
+
+    @Value("${app.echo-log.partitioning.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${app.echo-log.partitioning.drop-detached:true}")
+    private boolean dropDetached;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        if (!isPartitioned()) {
+            logger.info("Converting echo_log to a partitioned table");
+        }
+        // Also run once partitioned: the script is idempotent and makes sure the parent indexes exist
+        try (InputStream script = new ClassPathResource(CONVERSION_SCRIPT).getInputStream()) {
+            jdbcTemplate.execute(StreamUtils.copyToString(script, StandardCharsets.UTF_8));
+        }
+
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${app.echo-log.partitioning.maintenance-cron:0 5 0 * * *}")
+    public synchronized void maintainPartitions() {
+        if (!enabled || !isPartitioned()) {
+            return;
+        }
+
+        try {
+            createFuturePartitions();
+            dropExpiredPartitions();
+            checkDefaultPartition();
+        } catch (Exception e) {
+            logger.error("Echo log partition maintenance failed", e);
+        }
+    }
+
+    private void createFuturePartitions() {
+        LocalDateTime today = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime horizon = isMonthly()
+            ? today.withDayOfMonth(1).plusMonths(premake + 1)
+            : today.plusDays(premake + 1);
+
+        LocalDateTime lower = latestUpperBound();
+        if (lower == null) {
+            lower = today;
+        }
+
+        while (lower.isBefore(horizon)) {
+            LocalDateTime upper = isMonthly()
+                ? lower.withDayOfMonth(1).plusMonths(1)
+                : lower.plusDays(1);
+            String partition = "echo_log_p" + lower.format(PARTITION_SUFFIX);
+
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF echo_log " +
+                "FOR VALUES FROM ('" + Timestamp.valueOf(lower) + "') TO ('" + Timestamp.valueOf(upper) + "')");
+            logger.info("Created echo_log partition {} [{}, {})", partition, lower, upper);
+
+            lower = upper;
+        }
+    }
+
+    private void dropExpiredPartitions() {
+        LocalDateTime cutoff = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).minusDays(retentionDays);
+
+        for (Object[] partition : listPartitions()) {
+            String name = (String) partition[0];
+            LocalDateTime upper = (LocalDateTime) partition[1];
+            if (upper == null || upper.isAfter(cutoff)) {
+                continue;
+            }
+
+            try {
+                jdbcTemplate.execute("ALTER TABLE echo_log DETACH PARTITION " + name);
+                if (dropDetached) {
+                    jdbcTemplate.execute("DROP TABLE " + name);
+                    logger.info("Dropped echo_log partition {} (data before {})", name, upper);
+                } else {
+                    logger.info("Detached echo_log partition {} (data before {})", name, upper);
+                }
+            } catch (Exception e) {
+                // Keep going so one stuck partition does not hold back the rest of retention
+                logger.error("Failed to retire echo_log partition {}", name, e);
+            }
+        }
+    }
+
+    private void checkDefaultPartition() {
+        boolean exists = listPartitions().stream().anyMatch(partition -> DEFAULT_PARTITION.equals(partition[0]));
+        if (!exists) {
+            return;
+        }
+
+        Boolean hasRows = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION + ")", Boolean.class);
+        if (Boolean.TRUE.equals(hasRows)) {
+            logger.warn("{} holds echo logs outside every partition range", DEFAULT_PARTITION);
+        }
+    }
+
+    private LocalDateTime latestUpperBound() {
+        LocalDateTime latest = null;
+        for (Object[] partition : listPartitions()) {
+            LocalDateTime upper = (LocalDateTime) partition[1];
+            if (upper != null && (latest == null || upper.isAfter(latest))) {
+                latest = upper;
+            }
+        }
+        return latest;
+    }
+
+    // Name and upper bound of every range partition; the default partition has no bound
+    private List<Object[]> listPartitions() {
+        return jdbcTemplate.query(PARTITIONS_SQL, (rs, rowNum) -> {
+            Matcher matcher = UPPER_BOUND.matcher(rs.getString(2));
+            LocalDateTime upper = matcher.find() ? Timestamp.valueOf(matcher.group(1)).toLocalDateTime() : null;
+            return new Object[] { rs.getString(1), upper };
+        });
+    }
+
+    private boolean isPartitioned() {
+        List<String> relkind = jdbcTemplate.queryForList(
+            "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('echo_log')", String.class);
+        return relkind.contains("p");
+    }
+
+    private boolean isMonthly() {
+        return "MONTHLY".equalsIgnoreCase(interval);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.edcmanagement.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for handing an echo log to the database or the echo
+ * log writer.
+ */
+@Name("com.example.edcmanagement.EchoLogSave")
+@Label("Echo Log Save")
+@Description("An echo log saved directly or passed to the echo log writer")
+@Category({ "EDC Management", "Echo" })
+@StackTrace(false)
+public class EchoLogSaveEvent extends Event {
+
+    @Label("Terminal ID")
+    public String terminalId;
+
+    @Label("Response Status")
+    public String responseStatus;
+
+    @Label("Queued")
+    @Description("Passed to the echo log writer rather than saved in the calling transaction")
+    public boolean queued;
+
+    @Label("Outcome")
+    @Description("ok or error")
+    public String outcome;
+}
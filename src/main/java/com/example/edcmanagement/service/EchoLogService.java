@@ -1,17 +1,25 @@
 package com.example.edcmanagement.service;
 
+import com.example.edcmanagement.dto.CursorPage;
+import com.example.edcmanagement.dto.EchoLogDto;
+import com.example.edcmanagement.dto.EchoLogStatsDto;
 import com.example.edcmanagement.entity.EchoLog;
 import com.example.edcmanagement.repository.EchoLogRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 
 @Service
 @Transactional
@@ -21,6 +29,18 @@ public class EchoLogService {
     
     @Autowired
     private EchoLogRepository echoLogRepository;
+    
+    @Autowired
+    private EchoLogWriter echoLogWriter;
+    
+    @Autowired
+    private EchoLogStatistics echoLogStatistics;
+    
+    @Autowired
+    private EchoRollupService echoRollupService;
+    
+    @Autowired
+    private RecentEchoCache recentEchoCache;
 
     public EchoLog saveEchoLog(EchoLog echoLog) {
         logger.info("Saving echo log for terminal: {}", echoLog.getTerminalId());
@@ -29,9 +49,41 @@ public class EchoLogService {
             echoLog.setRequestTimestamp(LocalDateTime.now());
         }
         
-        EchoLog savedLog = echoLogRepository.save(echoLog);
+        // Released once the surrounding transaction has committed and the log is recorded
+        Lock statisticsLock = echoLogStatistics.beginWrite();
+        if (statisticsLock != null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    echoLogStatistics.endWrite(statisticsLock);
+                }
+            });
+        }
+        
+        EchoLogSaveEvent event = new EchoLogSaveEvent();
+        event.begin();
+        EchoLog savedLog;
+        try {
+            savedLog = echoLogRepository.save(echoLog);
+        } catch (RuntimeException e) {
+            commit(event, echoLog, false, false);
+            throw e;
+        }
+        commit(event, echoLog, false, true);
         logger.debug("Echo log saved with ID: {}", savedLog.getId());
         
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                echoLogStatistics.record(savedLog.getSignatureValid());
+                echoRollupService.record(savedLog.getTerminalId(), savedLog.getRequestTimestamp(),
+                    savedLog.getResponseStatus());
+                recentEchoCache.record(savedLog.getId(), savedLog.getTerminalId(), savedLog.getRequestTimestamp(),
+                    savedLog.getResponseStatus(), savedLog.getClientIp(), savedLog.getUserAgent(),
+                    savedLog.getSignatureValid(), savedLog.getErrorMessage());
+            }
+        });
+        
         return savedLog;
     }
     
@@ -48,6 +100,59 @@ public class EchoLogService {
         return saveEchoLog(echoLog);
     }
     
+    /**
+     * Records an echo log through the asynchronous writer so the insert is
+     * batched off the request thread.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void recordEchoLog(String terminalId, String clientIp, String userAgent, 
+                              Boolean signatureValid, String responseStatus, String errorMessage) {
+        
+        EchoLog echoLog = new EchoLog(terminalId);
+        echoLog.setClientIp(clientIp);
+        echoLog.setUserAgent(userAgent);
+        echoLog.setSignatureValid(signatureValid);
+        echoLog.setResponseStatus(responseStatus);
+        echoLog.setErrorMessage(errorMessage);
+        
+        EchoLogSaveEvent event = new EchoLogSaveEvent();
+        event.begin();
+        boolean written = false;
+        try {
+            echoLogWriter.write(echoLog);
+            written = true;
+        } finally {
+            commit(event, echoLog, true, written);
+        }
+    }
+    
+    private static void commit(EchoLogSaveEvent event, EchoLog echoLog, boolean queued, boolean succeeded) {
+        if (event.shouldCommit()) {
+            event.terminalId = echoLog.getTerminalId();
+            event.responseStatus = echoLog.getResponseStatus();
+            event.queued = queued;
+            event.outcome = succeeded ? "ok" : "error";
+            event.commit();
+        }
+    }
+    
+    /**
+     * Records several echo logs through the asynchronous writer as one batch.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void recordEchoLogs(List<EchoLog> echoLogs) {
+        logger.debug("Recording {} echo logs", echoLogs.size());
+        echoLogWriter.writeAll(echoLogs);
+    }
+    
+    /**
+     * Echo log totals from the incrementally maintained counters; does not query echo_log.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public EchoLogStatsDto getEchoLogStats() {
+        return echoLogStatistics.getStats();
+    }
+    
     @Transactional(readOnly = true)
     public List<EchoLog> getAllEchoLogs() {
         logger.debug("Retrieving all echo logs");
@@ -55,37 +160,90 @@ public class EchoLogService {
     }
     
     @Transactional(readOnly = true)
-    public Page<EchoLog> getAllEchoLogs(Pageable pageable) {
+    public Page<EchoLogDto> getAllEchoLogs(Pageable pageable) {
         logger.debug("Retrieving echo logs with pagination");
-        return echoLogRepository.findAll(pageable);
+        return echoLogRepository.findAllDtos(pageable);
     }
 
+    /**
+     * Keyset page of echo logs, newest first; no count query is run.
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<EchoLogDto> getEchoLogPage(String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<EchoLogDto> echoLogs;
+        if (cursor == null) {
+            echoLogs = echoLogRepository.findFirstPage(limit);
+        } else {
+            Object[] key = PageCursor.decodeTimestampAndId(cursor);
+            echoLogs = echoLogRepository.findPageBefore((LocalDateTime) key[0], (Long) key[1], limit);
+        }
+        return toCursorPage(echoLogs, size);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<EchoLogDto> getEchoLogPageByTerminalId(String terminalId, String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<EchoLogDto> echoLogs;
+        if (cursor == null) {
+            echoLogs = echoLogRepository.findFirstPageByTerminalId(terminalId, limit);
+        } else {
+            Object[] key = PageCursor.decodeTimestampAndId(cursor);
+            echoLogs = echoLogRepository.findPageByTerminalIdBefore(terminalId,
+                (LocalDateTime) key[0], (Long) key[1], limit);
+        }
+        return toCursorPage(echoLogs, size);
+    }
+    
     @Transactional(readOnly = true)
-    public List<EchoLog> getEchoLogsByTerminalId(String terminalId) {
+    public List<EchoLogDto> getEchoLogsByTerminalId(String terminalId) {
         logger.debug("Retrieving echo logs for terminal: {}", terminalId);
-        return echoLogRepository.findByTerminalIdOrderByRequestTimestampDesc(terminalId);
+        return echoLogRepository.findDtosByTerminalId(terminalId);
     }
     
 
     @Transactional(readOnly = true)
-    public Page<EchoLog> getEchoLogsByTerminalId(String terminalId, Pageable pageable) {
+    public Page<EchoLogDto> getEchoLogsByTerminalId(String terminalId, Pageable pageable) {
         logger.debug("Retrieving echo logs for terminal with pagination: {}", terminalId);
-        return echoLogRepository.findByTerminalIdOrderByRequestTimestampDesc(terminalId, pageable);
+        return echoLogRepository.findDtosByTerminalId(terminalId, pageable);
+    }
+    
+    /**
+     * Echo logs of one terminal since the given time, newest first; served
+     * from the hot tier when it holds the whole window.
+     */
+    @Transactional(readOnly = true)
+    public List<EchoLogDto> getEchoLogsByTerminalIdSince(String terminalId, LocalDateTime since) {
+        return getEchoLogsByTerminalIdAndTimeRange(terminalId, since, LocalDateTime.now());
     }
     
     @Transactional(readOnly = true)
-    public List<EchoLog> getEchoLogsByTimeRange(LocalDateTime startTime, LocalDateTime endTime) {
+    public List<EchoLogDto> getEchoLogsByTimeRange(LocalDateTime startTime, LocalDateTime endTime) {
+        List<EchoLogDto> recent = recentEchoCache.findAll(startTime, endTime);
+        if (recent != null) {
+            logger.debug("Serving echo logs between {} and {} from the hot tier", startTime, endTime);
+            return recent;
+        }
+        
         logger.debug("Retrieving echo logs between {} and {}", startTime, endTime);
-        return echoLogRepository.findByRequestTimestampBetween(startTime, endTime);
+        return echoLogRepository.findDtosByRequestTimestampBetween(startTime, endTime);
     }
     
     @Transactional(readOnly = true)
-    public List<EchoLog> getEchoLogsByTerminalIdAndTimeRange(String terminalId, 
+    public List<EchoLogDto> getEchoLogsByTerminalIdAndTimeRange(String terminalId, 
                                                            LocalDateTime startTime, 
                                                            LocalDateTime endTime) {
+        List<EchoLogDto> recent = recentEchoCache.findByTerminalId(terminalId, startTime, endTime);
+        if (recent != null) {
+            logger.debug("Serving echo logs for terminal {} between {} and {} from the hot tier",
+                        terminalId, startTime, endTime);
+            return recent;
+        }
+        
         logger.debug("Retrieving echo logs for terminal {} between {} and {}", 
                     terminalId, startTime, endTime);
-        return echoLogRepository.findByTerminalIdAndTimestampRange(terminalId, startTime, endTime);
+        return echoLogRepository.findDtosByTerminalIdAndTimestampRange(terminalId, startTime, endTime);
     }
     
     @Transactional(readOnly = true)
@@ -101,7 +259,7 @@ public class EchoLogService {
     }
     
     @Transactional(readOnly = true)
-    public List<EchoLog> getTodayEchoLogs() {
+    public List<EchoLogDto> getTodayEchoLogs() {
         LocalDateTime startOfDay = LocalDateTime.now().toLocalDate().atStartOfDay();
         LocalDateTime endOfDay = startOfDay.plusDays(1).minusSeconds(1);
         
@@ -110,11 +268,22 @@ public class EchoLogService {
     }
     
     @Transactional(readOnly = true)
-    public List<EchoLog> getTodayEchoLogsByTerminalId(String terminalId) {
+    public List<EchoLogDto> getTodayEchoLogsByTerminalId(String terminalId) {
         LocalDateTime startOfDay = LocalDateTime.now().toLocalDate().atStartOfDay();
         LocalDateTime endOfDay = startOfDay.plusDays(1).minusSeconds(1);
         
         logger.debug("Retrieving today's echo logs for terminal: {}", terminalId);
         return getEchoLogsByTerminalIdAndTimeRange(terminalId, startOfDay, endOfDay);
     }
+    
+    // One extra row was fetched to tell whether another page follows
+    private CursorPage<EchoLogDto> toCursorPage(List<EchoLogDto> echoLogs, int size) {
+        if (echoLogs.size() <= size) {
+            return new CursorPage<>(echoLogs, null);
+        }
+        
+        List<EchoLogDto> items = echoLogs.subList(0, size);
+        EchoLogDto last = items.get(size - 1);
+        return new CursorPage<>(items, PageCursor.encode(last.getRequestTimestamp(), last.getId()));
+    }
 }
\ No newline at end of file
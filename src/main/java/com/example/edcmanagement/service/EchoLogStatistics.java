@@ -0,0 +1,208 @@
+package com.example.edcmanagement.service;
+
+import com.example.edcmanagement.dto.EchoLogStatsDto;
+import com.example.edcmanagement.entity.EchoLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Incrementally maintained echo_log totals.
+ *
+ * Every persisted echo log bumps striped in-memory counters. A scheduled job
+ * adds what was counted since the last run to the single echo_log_stats row
+ * and reads the row back, so totals survive restarts and include what other
+ * nodes have written. Reading the statistics never touches echo_log.
+ *
+ * The first node to start against a database without a stats row seeds it
+ * with one count over echo_log. Echo logs are already being written by then,
+ * so until the statistics are loaded every write holds {@link #beginWrite()}
+ * from its insert to its {@link #record(Boolean)}: a log is then either in the
+ * seed's snapshot and recorded before it, or recorded after it, never both.
+ * Totals are lifetime counts: echo_log partitions dropped by retention are
+ * not subtracted.
+ */
+@Component
+public class EchoLogStatistics {
+
+    private static final Logger logger = LoggerFactory.getLogger(EchoLogStatistics.class);
+
+    private static final String STATS_KEY = "global";
+
+    private static final String SEED_SQL =
+        "INSERT INTO echo_log_stats (stats_key, total_logs, valid_signatures, invalid_signatures, updated_at) " +
+        "SELECT ?, COUNT(*), COUNT(*) FILTER (WHERE signature_valid), " +
+        "       COUNT(*) FILTER (WHERE NOT signature_valid), now() " +
+        "FROM echo_log " +
+        "ON CONFLICT (stats_key) DO NOTHING";
+
+    private static final String SELECT_SQL =
+        "SELECT total_logs, valid_signatures, invalid_signatures FROM echo_log_stats WHERE stats_key = ?";
+
+    private static final String ADD_SQL =
+        "UPDATE echo_log_stats SET total_logs = total_logs + ?, valid_signatures = valid_signatures + ?, " +
+        "       invalid_signatures = invalid_signatures + ?, updated_at = now() " +
+        "WHERE stats_key = ? " +
+        "RETURNING total_logs, valid_signatures, invalid_signatures";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Counted on this node since startup; never reset
+    private final LongAdder recordedTotal = new LongAdder();
+    private final LongAdder recordedValid = new LongAdder();
+    private final LongAdder recordedInvalid = new LongAdder();
+
+    private volatile Baseline baseline = new Baseline(0, 0, 0, 0, 0, 0);
+
+    private volatile boolean loaded;
+
+    // Shared by writers until loaded, exclusive while the seed runs
+    private final ReentrantReadWriteLock seedLock = new ReentrantReadWriteLock();
+
+    public void record(Boolean signatureValid) {
+        recordedTotal.increment();
+        if (Boolean.TRUE.equals(signatureValid)) {
+            recordedValid.increment();
+        } else if (Boolean.FALSE.equals(signatureValid)) {
+            recordedInvalid.increment();
+        }
+    }
+
+    public void recordAll(Collection<EchoLog> echoLogs) {
+        for (EchoLog echoLog : echoLogs) {
+            record(echoLog.getSignatureValid());
+        }
+    }
+
+    /**
+     * Called before an echo_log insert; pass the result to {@link #endWrite(Lock)}
+     * once the inserted logs are recorded or the insert failed.
+     * @return the lock held until the statistics are loaded, null afterwards
+     */
+    public Lock beginWrite() {
+        if (loaded) {
+            return null;
+        }
+        Lock lock = seedLock.readLock();
+        lock.lock();
+        return lock;
+    }
+
+    public void endWrite(Lock lock) {
+        if (lock != null) {
+            lock.unlock();
+        }
+    }
+
+    public EchoLogStatsDto getStats() {
+        Baseline current = baseline;
+        return new EchoLogStatsDto(
+            current.total + recordedTotal.sum() - current.persistedTotal,
+            current.valid + recordedValid.sum() - current.persistedValid,
+            current.invalid + recordedInvalid.sum() - current.persistedInvalid);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        // Waits for writes in flight, so every log committed before the seed is also recorded
+        Lock lock = seedLock.writeLock();
+        lock.lock();
+        try {
+            long total = recordedTotal.sum();
+            long valid = recordedValid.sum();
+            long invalid = recordedInvalid.sum();
+
+            // Logs this node wrote before the seed are already part of the seeded counts
+            boolean seeded = jdbcTemplate.update(SEED_SQL, STATS_KEY) > 0;
+            long[] stored = readStored();
+
+            if (seeded) {
+                baseline = new Baseline(stored[0], stored[1], stored[2], total, valid, invalid);
+                logger.info("Echo log statistics seeded from echo_log: {} logs", stored[0]);
+            } else {
+                baseline = new Baseline(stored[0], stored[1], stored[2], 0, 0, 0);
+                logger.info("Echo log statistics loaded: {} logs", stored[0]);
+            }
+
+            loaded = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.echo-log.stats.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        if (!loaded) {
+            return;
+        }
+
+        Baseline current = baseline;
+        long total = recordedTotal.sum();
+        long valid = recordedValid.sum();
+        long invalid = recordedInvalid.sum();
+
+        try {
+            long[] stored;
+            if (total == current.persistedTotal && valid == current.persistedValid
+                    && invalid == current.persistedInvalid) {
+                // Nothing new here; still pick up what other nodes have added
+                stored = readStored();
+            } else {
+                List<long[]> rows = jdbcTemplate.query(ADD_SQL, (rs, rowNum) ->
+                        new long[] { rs.getLong(1), rs.getLong(2), rs.getLong(3) },
+                    total - current.persistedTotal, valid - current.persistedValid,
+                    invalid - current.persistedInvalid, STATS_KEY);
+                stored = rows.get(0);
+            }
+
+            baseline = new Baseline(stored[0], stored[1], stored[2], total, valid, invalid);
+
+        } catch (Exception e) {
+            logger.error("Failed to persist echo log statistics, retrying on next run", e);
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+    private long[] readStored() {
+        return jdbcTemplate.queryForObject(SELECT_SQL, (rs, rowNum) ->
+                new long[] { rs.getLong(1), rs.getLong(2), rs.getLong(3) },
+            STATS_KEY);
+    }
+
+    // Stored totals as last read, and the local counts they already include
+    private static final class Baseline {
+        final long total;
+        final long valid;
+        final long invalid;
+        final long persistedTotal;
+        final long persistedValid;
+        final long persistedInvalid;
+
+        Baseline(long total, long valid, long invalid,
+                 long persistedTotal, long persistedValid, long persistedInvalid) {
+            this.total = total;
+            this.valid = valid;
+            this.invalid = invalid;
+            this.persistedTotal = persistedTotal;
+            this.persistedValid = persistedValid;
+            this.persistedInvalid = persistedInvalid;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.edcmanagement.service;
+
+import com.example.edcmanagement.dto.EchoLogWriterStatsDto;
+import com.example.edcmanagement.entity.EchoLog;
+import com.example.edcmanagement.repository.EchoLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Background writer that takes echo_log inserts off the request thread.
+ *
+ * Logs are queued in a bounded queue and flushed by a single writer thread in
+ * batches, either when {@code batch-size} logs are pending or every
+ * {@code flush-interval-ms}. Each batch is persisted in one transaction so
+ * Hibernate can send it as a JDBC batch. When the queue stays full for
+ * {@code offer-timeout-ms} the caller writes its own log synchronously, which
+ * slows producers down instead of dropping logs. A batch the database rejects
+ * is retried row by row, so only the offending rows are lost.
+ */
+@Component
+public class EchoLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(EchoLogWriter.class);
+
+    @Autowired
+    private EchoLogRepository echoLogRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EchoLogStatistics echoLogStatistics;
+
+    @Autowired
+    private EchoRollupService echoRollupService;
+
+    @Autowired
+    private RecentEchoCache recentEchoCache;
+
+    @Value("${app.echo-log.writer.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.echo-log.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.echo-log.writer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.echo-log.writer.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${app.echo-log.writer.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    private BlockingQueue<EchoLog> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private final AtomicLong totalWritten = new AtomicLong();
+    private final AtomicLong totalFailed = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        if (!enabled) {
+            logger.info("Asynchronous echo log writer disabled, echo logs are written synchronously");
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writerThread = new Thread(this::runWriter, "echo-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        logger.info("Echo log writer started (capacity={}, batchSize={}, flushIntervalMs={})",
+                   queueCapacity, batchSize, flushIntervalMs);
+    }
+
+    /**
+     * Queues an echo log for writing. Falls back to a synchronous write when
+     * the writer is disabled, stopped or the queue stays full.
+     */
+    public void write(EchoLog echoLog) {
+        if (running) {
+            try {
+                if (queue.offer(echoLog, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    if (!reclaimedAfterStop(echoLog)) {
+                        return;
+                    }
+                } else {
+                    callerRuns.incrementAndGet();
+                    logger.warn("Echo log queue full, writing log for terminal {} synchronously",
+                               echoLog.getTerminalId());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        flush(Collections.singletonList(echoLog));
+    }
+
+    /**
+     * Queues several echo logs; whatever does not fit in the queue is written
+     * synchronously as a single batch.
+     */
+    public void writeAll(List<EchoLog> echoLogs) {
+        List<EchoLog> queued = new ArrayList<>(echoLogs.size());
+        List<EchoLog> overflow = new ArrayList<>();
+
+        for (EchoLog echoLog : echoLogs) {
+            if (running && overflow.isEmpty() && queue.offer(echoLog)) {
+                queued.add(echoLog);
+            } else {
+                overflow.add(echoLog);
+            }
+        }
+
+        if (running && !overflow.isEmpty()) {
+            callerRuns.addAndGet(overflow.size());
+            logger.warn("Echo log queue full, writing {} logs synchronously", overflow.size());
+        }
+        for (EchoLog echoLog : queued) {
+            if (reclaimedAfterStop(echoLog)) {
+                overflow.add(echoLog);
+            }
+        }
+
+        if (!overflow.isEmpty()) {
+            flush(overflow);
+        }
+    }
+
+    /**
+     * Takes back a queued log if the writer stopped meanwhile. stop() clears
+     * running before draining the queue, so a log that is still queued once
+     * running reads false may have landed after the drain and would never be
+     * written. Removing it decides atomically whether stop() or the caller
+     * writes it.
+     */
+    private boolean reclaimedAfterStop(EchoLog echoLog) {
+        return !running && queue.remove(echoLog);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        writerThread.interrupt();
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Anything the writer thread did not get to is flushed here
+        List<EchoLog> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        while (!remaining.isEmpty()) {
+            int end = Math.min(batchSize, remaining.size());
+            flush(remaining.subList(0, end));
+            remaining.subList(0, end).clear();
+        }
+
+        logger.info("Echo log writer stopped, {} logs written in total", totalWritten.get());
+    }
+
+    public EchoLogWriterStatsDto getStats() {
+        long flushes = flushCount.get();
+        return new EchoLogWriterStatsDto(
+            enabled,
+            queue != null ? queue.size() : 0,
+            queue != null ? queueCapacity : 0,
+            totalWritten.get(),
+            totalFailed.get(),
+            callerRuns.get(),
+            flushes,
+            TimeUnit.NANOSECONDS.toMicros(lastFlushNanos) / 1000.0,
+            TimeUnit.NANOSECONDS.toMicros(maxFlushNanos) / 1000.0,
+            flushes > 0 ? TimeUnit.NANOSECONDS.toMicros(totalFlushNanos.get() / flushes) / 1000.0 : 0.0);
+    }
+
+    public int getQueueDepth() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    private void runWriter() {
+        List<EchoLog> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                EchoLog first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+
+                // Fill the batch until it is full or the flush interval has passed
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    if (batch.size() >= batchSize) {
+                        break;
+                    }
+
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (remainingNanos <= 0) {
+                        break;
+                    }
+
+                    EchoLog next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+                batch.clear();
+
+            } catch (InterruptedException e) {
+                // stop() interrupts the thread; pending logs are flushed there
+                break;
+            } catch (Exception e) {
+                logger.error("Unexpected error in echo log writer", e);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<EchoLog> batch) {
+        long start = System.nanoTime();
+
+        List<EchoLog> written = batch;
+        Lock statisticsLock = echoLogStatistics.beginWrite();
+        try {
+            try {
+                transactionTemplate.executeWithoutResult(status -> echoLogRepository.saveAll(batch));
+                logger.debug("Flushed {} echo logs", batch.size());
+            } catch (Exception e) {
+                logger.warn("Batch of {} echo logs failed, retrying row by row", batch.size(), e);
+                written = writeRowByRow(batch);
+            }
+
+            if (!written.isEmpty()) {
+                totalWritten.addAndGet(written.size());
+                try {
+                    echoLogStatistics.recordAll(written);
+                    echoRollupService.recordAll(written);
+                    recentEchoCache.recordAll(written);
+                } catch (Exception e) {
+                    logger.error("Failed to record {} written echo logs in the aggregates", written.size(), e);
+                }
+            }
+        } finally {
+            echoLogStatistics.endWrite(statisticsLock);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        flushCount.incrementAndGet();
+        totalFlushNanos.addAndGet(elapsed);
+        lastFlushNanos = elapsed;
+        if (elapsed > maxFlushNanos) {
+            maxFlushNanos = elapsed;
+        }
+    }
+
+    // One rejected row must not cost the others their log
+    private List<EchoLog> writeRowByRow(List<EchoLog> batch) {
+        List<EchoLog> written = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            EchoLog echoLog = batch.get(i);
+            // The rolled back batch already assigned an id; clearing it keeps save() an insert
+            echoLog.setId(null);
+            try {
+                transactionTemplate.executeWithoutResult(status -> echoLogRepository.save(echoLog));
+                written.add(echoLog);
+            } catch (CannotCreateTransactionException e) {
+                // The database is unreachable, so the remaining rows would only fail one by one
+                totalFailed.addAndGet(batch.size() - i);
+                logger.error("Failed to write {} echo logs, database unavailable", batch.size() - i, e);
+                break;
+            } catch (Exception e) {
+                totalFailed.incrementAndGet();
+                logger.error("Failed to write echo log for terminal {}", echoLog.getTerminalId(), e);
+            }
+        }
+        return written;
+    }
+}
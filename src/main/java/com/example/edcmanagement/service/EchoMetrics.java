@@ -0,0 +1,125 @@
+package com.example.edcmanagement.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for the echo path.
+ *
+ * {@code edc.echo} times a whole echo by outcome and {@code edc.echo.stage}
+ * times each step by stage and outcome. Percentiles and histogram buckets for
+ * both come from management.metrics.distribution.* in application.properties.
+ * Echo log writer and ping buffer backlogs are exposed as gauges. Connection
+ * pool and executor metrics are bound by Spring Boot itself.
+ */
+@Component
+public class EchoMetrics {
+
+    public static final String SIGNATURE = "signature";
+    public static final String TERMINAL_LOOKUP = "terminal_lookup";
+    public static final String LAST_PING = "last_ping";
+    public static final String ECHO_LOG = "echo_log";
+    public static final String UNIT_OF_WORK = "unit_of_work";
+
+    public static final String VALID = "valid";
+    public static final String INVALID = "invalid";
+    public static final String FOUND = "found";
+    public static final String NOT_FOUND = "not_found";
+    public static final String OK = "ok";
+    public static final String ERROR = "error";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EchoLogWriter echoLogWriter;
+
+    @Autowired
+    private TerminalPingBuffer terminalPingBuffer;
+
+    @Value("${app.hmac.legacy-tolerance.minutes:2}")
+    private int legacyToleranceMinutes;
+
+    // Stage and outcome names form a small fixed set, so the maps stay small
+    private final ConcurrentMap<String, Timer> echoTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> attemptSummaries = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("edc.echo_log.writer.queue.depth", echoLogWriter, EchoLogWriter::getQueueDepth)
+            .description("Echo logs waiting for the background writer")
+            .register(meterRegistry);
+        Gauge.builder("edc.echo_log.writer.queue.capacity", echoLogWriter, w -> w.getStats().getQueueCapacity())
+            .register(meterRegistry);
+        FunctionCounter.builder("edc.echo_log.writer.caller_runs", echoLogWriter, w -> w.getStats().getCallerRuns())
+            .description("Echo logs written on the request thread because the queue was full")
+            .register(meterRegistry);
+        FunctionCounter.builder("edc.echo_log.writer.failed", echoLogWriter, w -> w.getStats().getTotalFailed())
+            .register(meterRegistry);
+        Gauge.builder("edc.terminal.ping_buffer.pending", terminalPingBuffer, TerminalPingBuffer::getPendingCount)
+            .description("Terminals with a ping not yet written to terminal_edc")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Records a whole echo, from receipt to response.
+     * @param startNanos System.nanoTime() when the echo was received
+     */
+    public void recordEcho(String outcome, long startNanos) {
+        echoTimers.computeIfAbsent(outcome, key -> Timer.builder("edc.echo")
+                .description("Echo request latency")
+                .tag("outcome", key)
+                .register(meterRegistry))
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records one step of an echo.
+     * @param startNanos System.nanoTime() when the step started
+     */
+    public void recordStage(String stage, String outcome, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        stageTimers.computeIfAbsent(stage + ':' + outcome, key -> Timer.builder("edc.echo.stage")
+                .description("Echo latency per processing stage")
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .register(meterRegistry))
+            .record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records how many candidate signing times a signature check tried: 1 for
+     * a check against the request time, up to the whole window for the legacy
+     * tolerance search.
+     */
+    public void recordToleranceAttempts(int attempts, boolean valid) {
+        String outcome = valid ? VALID : INVALID;
+        attemptSummaries.computeIfAbsent(outcome, key -> DistributionSummary.builder("edc.signature.tolerance.attempts")
+                .description("Candidate signing times tried per signature check")
+                .tag("outcome", key)
+                .serviceLevelObjectives(attemptBuckets())
+                .register(meterRegistry))
+            .record(attempts);
+    }
+
+    // One bucket per possible attempt count: the exact second, then a past and a future minute per tolerance step
+    private double[] attemptBuckets() {
+        double[] buckets = new double[2 * legacyToleranceMinutes + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = i + 1;
+        }
+        return buckets;
+    }
+}
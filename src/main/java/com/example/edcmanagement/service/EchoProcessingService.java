@@ -0,0 +1,253 @@
+package com.example.edcmanagement.service;
+
+import com.example.edcmanagement.entity.EchoLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Processes a signature-checked echo: terminal check, last-ping update and
+ * echo_log insert.
+ *
+ * By default the work is split across the terminal registry, the coalesced
+ * ping buffer and the asynchronous echo log writer. With
+ * {@code app.echo.unit-of-work.enabled=true} the three steps run instead as a
+ * single data-modifying statement, i.e. one round trip and one commit per echo,
+ * for deployments that need every echo durable before the response is sent.
+ */
+@Service
+public class EchoProcessingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EchoProcessingService.class);
+
+    public static final String SUCCESS = "SUCCESS";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String UNAUTHORIZED = "UNAUTHORIZED";
+
+    // The UPDATE only runs for valid signatures; its RETURNING row tells the INSERT the outcome.
+    // The locked pre-image tells whether the ping re-activated the terminal.
+    private static final String UNIT_OF_WORK_SQL =
+        "WITH previous AS (" +
+        "  SELECT id, status FROM terminal_edc WHERE terminal_id = ? AND ? FOR UPDATE" +
+        "), pinged AS (" +
+        "  UPDATE terminal_edc t SET last_ping = ?, status = 'ACTIVE' " +
+        "  FROM previous p WHERE t.id = p.id " +
+        "  RETURNING t.id, p.status IS DISTINCT FROM 'ACTIVE' AS reactivated" +
+        "), outcome AS (" +
+        "  SELECT CASE WHEN NOT ? THEN 'UNAUTHORIZED' " +
+        "              WHEN EXISTS (SELECT 1 FROM pinged) THEN 'SUCCESS' " +
+        "              ELSE 'NOT_FOUND' END AS status" +
+        "), logged AS (" +
+        "  INSERT INTO echo_log (id, terminal_id, request_timestamp, response_status, client_ip, " +
+        "                        user_agent, signature_valid, error_message) " +
+        "  SELECT nextval('echo_log_id_seq'), ?, ?, o.status, ?, ?, ?, " +
+        "         CASE o.status WHEN 'UNAUTHORIZED' THEN 'Invalid signature' " +
+        "                       WHEN 'NOT_FOUND' THEN 'Terminal not found' END " +
+        "  FROM outcome o " +
+        "  RETURNING id, response_status, error_message" +
+        ") SELECT id, response_status, error_message, (SELECT id FROM pinged), " +
+        "         (SELECT reactivated FROM pinged) FROM logged";
+
+    @Autowired
+    private TerminalEDCService terminalService;
+
+    @Autowired
+    private EchoLogService echoLogService;
+
+    @Autowired
+    private EchoLogStatistics echoLogStatistics;
+
+    @Autowired
+    private EchoRollupService echoRollupService;
+
+    @Autowired
+    private RecentEchoCache recentEchoCache;
+
+    @Autowired
+    private TerminalLivenessMonitor livenessMonitor;
+
+    @Autowired
+    private TerminalEntityCache terminalEntityCache;
+
+    @Autowired
+    private EchoMetrics echoMetrics;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.echo.unit-of-work.enabled:false}")
+    private boolean unitOfWorkEnabled;
+
+    /**
+     * Processes an echo whose signature has already been checked.
+     * @return SUCCESS, NOT_FOUND or UNAUTHORIZED
+     */
+    public String processEcho(String terminalId, String clientIp, String userAgent,
+                              boolean signatureValid, LocalDateTime requestTimestamp) {
+        if (unitOfWorkEnabled) {
+            return processInSingleStatement(terminalId, clientIp, userAgent, signatureValid, requestTimestamp);
+        }
+
+        if (!signatureValid) {
+            recordEchoLog(terminalId, clientIp, userAgent, false, UNAUTHORIZED, "Invalid signature");
+            return UNAUTHORIZED;
+        }
+
+        if (!terminalExists(terminalId)) {
+            recordEchoLog(terminalId, clientIp, userAgent, true, NOT_FOUND, "Terminal not found");
+            return NOT_FOUND;
+        }
+
+        updateLastPing(terminalId);
+
+        recordEchoLog(terminalId, clientIp, userAgent, true, SUCCESS, null);
+        return SUCCESS;
+    }
+
+    private boolean terminalExists(String terminalId) {
+        long start = System.nanoTime();
+        String outcome = EchoMetrics.ERROR;
+        try {
+            boolean exists = terminalService.existsByTerminalId(terminalId);
+            outcome = exists ? EchoMetrics.FOUND : EchoMetrics.NOT_FOUND;
+            return exists;
+        } finally {
+            echoMetrics.recordStage(EchoMetrics.TERMINAL_LOOKUP, outcome, start);
+        }
+    }
+
+    private void updateLastPing(String terminalId) {
+        long start = System.nanoTime();
+        String outcome = EchoMetrics.ERROR;
+        try {
+            terminalService.updateLastPing(terminalId);
+            outcome = EchoMetrics.OK;
+        } finally {
+            echoMetrics.recordStage(EchoMetrics.LAST_PING, outcome, start);
+        }
+    }
+
+    private void recordEchoLog(String terminalId, String clientIp, String userAgent,
+                               boolean signatureValid, String status, String errorMessage) {
+        long start = System.nanoTime();
+        String outcome = EchoMetrics.ERROR;
+        try {
+            echoLogService.recordEchoLog(terminalId, clientIp, userAgent, signatureValid, status, errorMessage);
+            outcome = EchoMetrics.OK;
+        } finally {
+            echoMetrics.recordStage(EchoMetrics.ECHO_LOG, outcome, start);
+        }
+    }
+
+    /**
+     * Processes a batch of signature-checked echoes with set-based work: one
+     * terminal lookup, one last-ping update and one batched echo_log insert.
+     * @param terminalIds The terminal ID of each entry
+     * @param signatureValid Whether the signature of each entry is valid
+     * @return the outcome of each entry, in entry order
+     */
+    public List<String> processEchoBatch(List<String> terminalIds, List<Boolean> signatureValid,
+                                         String clientIp, String userAgent) {
+        Set<String> candidates = new HashSet<>();
+        for (int i = 0; i < terminalIds.size(); i++) {
+            if (signatureValid.get(i)) {
+                candidates.add(terminalIds.get(i));
+            }
+        }
+        
+        Set<String> existing = candidates.isEmpty() ? Collections.<String>emptySet()
+            : terminalService.findExistingTerminalIds(candidates);
+        
+        if (!existing.isEmpty()) {
+            terminalService.updateLastPings(existing);
+        }
+        
+        List<String> outcomes = new ArrayList<>(terminalIds.size());
+        List<EchoLog> echoLogs = new ArrayList<>(terminalIds.size());
+        for (int i = 0; i < terminalIds.size(); i++) {
+            String terminalId = terminalIds.get(i);
+            EchoLog echoLog = new EchoLog(terminalId);
+            echoLog.setClientIp(clientIp);
+            echoLog.setUserAgent(userAgent);
+            echoLog.setSignatureValid(signatureValid.get(i));
+            
+            if (!signatureValid.get(i)) {
+                echoLog.setResponseStatus(UNAUTHORIZED);
+                echoLog.setErrorMessage("Invalid signature");
+            } else if (!existing.contains(terminalId)) {
+                echoLog.setResponseStatus(NOT_FOUND);
+                echoLog.setErrorMessage("Terminal not found");
+            } else {
+                echoLog.setResponseStatus(SUCCESS);
+            }
+            
+            outcomes.add(echoLog.getResponseStatus());
+            echoLogs.add(echoLog);
+        }
+        
+        echoLogService.recordEchoLogs(echoLogs);
+        
+        logger.debug("Processed echo batch of {} entries, {} terminals pinged", terminalIds.size(), existing.size());
+        return outcomes;
+    }
+
+    private String processInSingleStatement(String terminalId, String clientIp, String userAgent,
+                                            boolean signatureValid, LocalDateTime requestTimestamp) {
+        Timestamp timestamp = Timestamp.valueOf(requestTimestamp);
+        // The terminal is looked up by its full ID, but the log is cut to the column length like queued logs
+        String loggedTerminalId = EchoLog.truncate(terminalId);
+        String loggedClientIp = EchoLog.truncate(clientIp);
+        String loggedUserAgent = EchoLog.truncate(userAgent);
+
+        long start = System.nanoTime();
+        Object[] logged;
+        Lock statisticsLock = echoLogStatistics.beginWrite();
+        try {
+            logged = jdbcTemplate.queryForObject(UNIT_OF_WORK_SQL,
+                (rs, rowNum) -> new Object[] { rs.getLong(1), rs.getString(2), rs.getString(3), rs.getObject(4),
+                    rs.getBoolean(5) },
+                terminalId, signatureValid, timestamp,
+                signatureValid,
+                loggedTerminalId, timestamp, loggedClientIp, loggedUserAgent, signatureValid);
+        } catch (RuntimeException e) {
+            echoLogStatistics.endWrite(statisticsLock);
+            echoMetrics.recordStage(EchoMetrics.UNIT_OF_WORK, EchoMetrics.ERROR, start);
+            throw e;
+        }
+        try {
+            echoLogStatistics.record(signatureValid);
+        } finally {
+            echoLogStatistics.endWrite(statisticsLock);
+        }
+        String status = (String) logged[1];
+        echoMetrics.recordStage(EchoMetrics.UNIT_OF_WORK, status.toLowerCase(Locale.ROOT), start);
+        if (SUCCESS.equals(status)) {
+            livenessMonitor.recordHeartbeat(terminalId);
+            Long terminalPk = ((Number) logged[3]).longValue();
+            if ((Boolean) logged[4]) {
+                terminalEntityCache.evictStatusChanged(terminalPk);
+            } else {
+                terminalEntityCache.evict(terminalPk);
+            }
+        }
+        echoRollupService.record(loggedTerminalId, requestTimestamp, status);
+        recentEchoCache.record((Long) logged[0], loggedTerminalId, requestTimestamp, status,
+            loggedClientIp, loggedUserAgent, signatureValid, (String) logged[2]);
+
+        logger.debug("Echo for terminal {} processed in a single statement: {}", terminalId, status);
+        return status;
+    }
+}
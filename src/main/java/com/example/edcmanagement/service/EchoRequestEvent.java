@@ -0,0 +1,26 @@
+package com.example.edcmanagement.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning one echo request, from receipt to response.
+ */
+@Name("com.example.edcmanagement.EchoRequest")
+@Label("Echo Request")
+@Description("An echo request handled by EchoController")
+@Category({ "EDC Management", "Echo" })
+@StackTrace(false)
+public class EchoRequestEvent extends Event {
+
+    @Label("Terminal ID")
+    public String terminalId;
+
+    @Label("Outcome")
+    @Description("SUCCESS, UNAUTHORIZED, NOT_FOUND or ERROR")
+    public String outcome;
+}
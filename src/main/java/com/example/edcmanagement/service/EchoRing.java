@@ -0,0 +1,178 @@
+package com.example.edcmanagement.service;
+
+import com.example.edcmanagement.dto.EchoLogDto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Fixed-size ring of the most recent echo logs of one terminal, stored
+ * column-wise in primitive arrays. Statuses are byte codes and strings are
+ * codes into a shared {@link StringDictionary}; only strings the dictionary
+ * cannot take are kept as references, in an array allocated on first use.
+ */
+final class EchoRing {
+
+    private static final String[] STATUSES = {
+        EchoProcessingService.SUCCESS, EchoProcessingService.NOT_FOUND,
+        EchoProcessingService.UNAUTHORIZED, "ERROR"
+    };
+    private static final byte OTHER_STATUS = -1;
+
+    private static final byte SIGNATURE_NULL = 2;
+
+    private static final int NO_STRING = -1;
+    private static final int OVERFLOW_STRING = -2;
+
+    /** Approximate bytes per slot: id, timestamp, 3 string codes, status and signature flag. */
+    static final int BYTES_PER_SLOT = 8 + 8 + 4 * 3 + 1 + 1;
+
+    private final String terminalId;
+    private final StringDictionary dictionary;
+
+    private final long[] ids;
+    private final long[] timestamps;
+    private final byte[] statuses;
+    private final byte[] signatures;
+    private final int[] clientIps;
+    private final int[] userAgents;
+    private final int[] errorMessages;
+    private String[] overflow;
+
+    private int next;
+    private int count;
+
+    // Every echo logged at or after this instant (epoch micros) is in the ring
+    private long coveredSince;
+    private long lastWrite;
+
+    EchoRing(String terminalId, int capacity, StringDictionary dictionary, long coveredSince, long createdAt) {
+        this.terminalId = terminalId;
+        this.dictionary = dictionary;
+        this.ids = new long[capacity];
+        this.timestamps = new long[capacity];
+        this.statuses = new byte[capacity];
+        this.signatures = new byte[capacity];
+        this.clientIps = new int[capacity];
+        this.userAgents = new int[capacity];
+        this.errorMessages = new int[capacity];
+        this.coveredSince = coveredSince;
+        this.lastWrite = createdAt;
+    }
+
+    /**
+     * Adds an echo log, overwriting the oldest one when the ring is full.
+     * @return the bytes the ring has grown by
+     */
+    synchronized long add(long id, long timestamp, String status, Boolean signatureValid,
+                          String clientIp, String userAgent, String errorMessage, long now) {
+        long before = memoryBytes();
+        if (count == ids.length) {
+            // Echoes up to the overwritten one may now be missing
+            coveredSince = Math.max(coveredSince, timestamps[next] + 1);
+        } else {
+            count++;
+        }
+
+        int slot = next;
+        ids[slot] = id;
+        timestamps[slot] = timestamp;
+        statuses[slot] = encodeStatus(status);
+        signatures[slot] = signatureValid == null ? SIGNATURE_NULL : (byte) (signatureValid ? 1 : 0);
+        clientIps[slot] = encodeString(slot, 0, clientIp);
+        userAgents[slot] = encodeString(slot, 1, userAgent);
+        errorMessages[slot] = encodeString(slot, 2, errorMessage);
+
+        next = (slot + 1) % ids.length;
+        lastWrite = now;
+        return memoryBytes() - before;
+    }
+
+    synchronized long getCoveredSince() {
+        return coveredSince;
+    }
+
+    synchronized long getLastWrite() {
+        return lastWrite;
+    }
+
+    /**
+     * Adds the echo logs with from <= timestamp <= to to {@code target}.
+     */
+    synchronized void collect(long from, long to, List<EchoLogDto> target) {
+        for (int i = 0; i < count; i++) {
+            int slot = (next - 1 - i + ids.length) % ids.length;
+            long timestamp = timestamps[slot];
+            if (timestamp >= from && timestamp <= to) {
+                target.add(toDto(slot));
+            }
+        }
+    }
+
+    synchronized long memoryBytes() {
+        return (long) ids.length * BYTES_PER_SLOT + (overflow != null ? overflow.length * 4L : 0) + 128;
+    }
+
+    static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+            (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+
+    private EchoLogDto toDto(int slot) {
+        byte status = statuses[slot];
+        byte signature = signatures[slot];
+        return new EchoLogDto(
+            ids[slot],
+            terminalId,
+            fromMicros(timestamps[slot]),
+            status == OTHER_STATUS ? null : STATUSES[status],
+            decodeString(slot, 0, clientIps[slot]),
+            decodeString(slot, 1, userAgents[slot]),
+            signature == SIGNATURE_NULL ? null : signature == 1,
+            decodeString(slot, 2, errorMessages[slot]));
+    }
+
+    private static byte encodeStatus(String status) {
+        for (byte i = 0; i < STATUSES.length; i++) {
+            if (STATUSES[i].equals(status)) {
+                return i;
+            }
+        }
+        return OTHER_STATUS;
+    }
+
+    private int encodeString(int slot, int field, String value) {
+        if (overflow != null) {
+            overflow[slot * 3 + field] = null;
+        }
+        if (value == null) {
+            return NO_STRING;
+        }
+
+        int code = dictionary.encode(value);
+        if (code >= 0) {
+            return code;
+        }
+
+        if (overflow == null) {
+            overflow = new String[ids.length * 3];
+        }
+        overflow[slot * 3 + field] = value;
+        return OVERFLOW_STRING;
+    }
+
+    private String decodeString(int slot, int field, int code) {
+        if (code == NO_STRING) {
+            return null;
+        }
+        if (code == OVERFLOW_STRING) {
+            return overflow[slot * 3 + field];
+        }
+        return dictionary.decode(code);
+    }
+}
@@ -0,0 +1,336 @@
+package com.example.edcmanagement.service;
+
+import com.example.edcmanagement.dto.EchoTimeseriesDto;
+import com.example.edcmanagement.dto.EchoTimeseriesPointDto;
+import com.example.edcmanagement.entity.EchoLog;
+import com.example.edcmanagement.entity.EchoRollup;
+import com.example.edcmanagement.repository.EchoRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-minute and per-hour echo rollups, per terminal and for the whole fleet.
+ *
+ * Persisted echo logs are folded into in-memory minute buckets. A scheduled
+ * job adds the pending buckets to echo_rollup with additive upserts (minute
+ * rows plus the hour rows derived from them), so several nodes can feed the
+ * same rollups. Time-series queries only read echo_rollup; buckets that have
+ * not been flushed yet are not visible.
+ */
+@Service
+@Transactional
+public class EchoRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EchoRollupService.class);
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO echo_rollup (granularity, terminal_id, bucket_start, echo_count, success_count, " +
+        "                         unauthorized_count, not_found_count, first_echo, last_echo) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (granularity, terminal_id, bucket_start) DO UPDATE SET " +
+        "  echo_count = echo_rollup.echo_count + EXCLUDED.echo_count, " +
+        "  success_count = echo_rollup.success_count + EXCLUDED.success_count, " +
+        "  unauthorized_count = echo_rollup.unauthorized_count + EXCLUDED.unauthorized_count, " +
+        "  not_found_count = echo_rollup.not_found_count + EXCLUDED.not_found_count, " +
+        "  first_echo = LEAST(echo_rollup.first_echo, EXCLUDED.first_echo), " +
+        "  last_echo = GREATEST(echo_rollup.last_echo, EXCLUDED.last_echo)";
+
+    // Ranges longer than this are answered from hour rollups when no granularity is given
+    private static final Duration MINUTE_SERIES_MAX_RANGE = Duration.ofHours(24);
+
+    @Autowired
+    private EchoRollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.echo-rollup.minute-retention-days:7}")
+    private int minuteRetentionDays;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private ConcurrentHashMap<BucketKey, Bucket> pending = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void record(String terminalId, LocalDateTime requestTimestamp, String responseStatus) {
+        LocalDateTime minute = requestTimestamp.truncatedTo(ChronoUnit.MINUTES);
+
+        swapLock.readLock().lock();
+        try {
+            addTo(pending, new BucketKey(terminalId, minute), requestTimestamp, responseStatus);
+            addTo(pending, new BucketKey(EchoRollup.FLEET, minute), requestTimestamp, responseStatus);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void recordAll(Collection<EchoLog> echoLogs) {
+        for (EchoLog echoLog : echoLogs) {
+            record(echoLog.getTerminalId(), echoLog.getRequestTimestamp(), echoLog.getResponseStatus());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.echo-rollup.flush-interval-ms:5000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public synchronized void flush() {
+        ConcurrentHashMap<BucketKey, Bucket> minutes;
+        swapLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            minutes = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        Map<BucketKey, Bucket> hours = new HashMap<>();
+        for (Map.Entry<BucketKey, Bucket> entry : minutes.entrySet()) {
+            BucketKey hourKey = new BucketKey(entry.getKey().terminalId,
+                entry.getKey().bucketStart.truncatedTo(ChronoUnit.HOURS));
+            hours.computeIfAbsent(hourKey, key -> new Bucket()).merge(entry.getValue());
+        }
+
+        // Sorted so concurrent flushes from several nodes lock rows in the same order
+        List<Object[]> rows = new ArrayList<>(minutes.size() + hours.size());
+        addRows(rows, EchoRollup.HOUR, new TreeMap<>(hours));
+        addRows(rows, EchoRollup.MINUTE, new TreeMap<>(minutes));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows));
+            logger.debug("Flushed {} minute and {} hour echo rollups", minutes.size(), hours.size());
+
+        } catch (Exception e) {
+            logger.error("Failed to flush {} echo rollup buckets, re-queueing", minutes.size(), e);
+            swapLock.readLock().lock();
+            try {
+                for (Map.Entry<BucketKey, Bucket> entry : minutes.entrySet()) {
+                    pending.merge(entry.getKey(), entry.getValue(), Bucket::merge);
+                }
+            } finally {
+                swapLock.readLock().unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+    @Scheduled(cron = "${app.echo-rollup.retention-cron:0 15 * * * *}")
+    public void purgeExpiredMinuteRollups() {
+        LocalDateTime before = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).minusDays(minuteRetentionDays);
+        int deleted = rollupRepository.deleteByGranularityAndBucketStartBefore(EchoRollup.MINUTE, before);
+        if (deleted > 0) {
+            logger.info("Purged {} minute echo rollups older than {}", deleted, before);
+        }
+    }
+
+    /**
+     * Builds an echo time series from the rollups.
+     * @param terminalId The terminal, or null for the whole fleet
+     * @param granularity MINUTE or HOUR, or null to pick by range length
+     * @param maxPoints Upper bound on the number of points; adjacent buckets are merged to stay below it
+     */
+    @Transactional(readOnly = true)
+    public EchoTimeseriesDto getTimeseries(String terminalId, LocalDateTime startTime, LocalDateTime endTime,
+                                           String granularity, int maxPoints) {
+        if (!endTime.isAfter(startTime)) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+
+        String resolvedGranularity = resolveGranularity(granularity, startTime, endTime);
+        ChronoUnit unit = EchoRollup.HOUR.equals(resolvedGranularity) ? ChronoUnit.HOURS : ChronoUnit.MINUTES;
+        long bucketSeconds = unit.getDuration().getSeconds();
+
+        LocalDateTime alignedStart = startTime.truncatedTo(unit);
+        long buckets = (Duration.between(alignedStart, endTime).getSeconds() + bucketSeconds - 1) / bucketSeconds;
+        long bucketsPerStep = Math.max(1, (buckets + maxPoints - 1) / maxPoints);
+        long stepSeconds = bucketsPerStep * bucketSeconds;
+
+        String seriesTerminalId = terminalId != null ? terminalId : EchoRollup.FLEET;
+        logger.debug("Retrieving {} echo time series for {} between {} and {}",
+                    resolvedGranularity, seriesTerminalId, alignedStart, endTime);
+
+        List<EchoRollup> rollups = rollupRepository.findSeries(resolvedGranularity, seriesTerminalId, alignedStart, endTime);
+
+        List<EchoTimeseriesPointDto> points = new ArrayList<>();
+        LocalDateTime pointStart = null;
+        Bucket point = null;
+        for (EchoRollup rollup : rollups) {
+            long offset = Duration.between(alignedStart, rollup.getBucketStart()).getSeconds();
+            LocalDateTime start = alignedStart.plusSeconds(offset / stepSeconds * stepSeconds);
+
+            if (!start.equals(pointStart)) {
+                if (point != null) {
+                    points.add(point.toPoint(pointStart));
+                }
+                pointStart = start;
+                point = new Bucket();
+            }
+            point.add(rollup);
+        }
+        if (point != null) {
+            points.add(point.toPoint(pointStart));
+        }
+
+        return new EchoTimeseriesDto(terminalId, resolvedGranularity, stepSeconds, alignedStart, endTime, points);
+    }
+
+    private String resolveGranularity(String granularity, LocalDateTime startTime, LocalDateTime endTime) {
+        if (granularity == null || granularity.isEmpty()) {
+            boolean minutesRetained = !startTime.isBefore(
+                LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).minusDays(minuteRetentionDays));
+            return minutesRetained && Duration.between(startTime, endTime).compareTo(MINUTE_SERIES_MAX_RANGE) <= 0
+                ? EchoRollup.MINUTE : EchoRollup.HOUR;
+        }
+
+        String upper = granularity.toUpperCase();
+        if (!EchoRollup.MINUTE.equals(upper) && !EchoRollup.HOUR.equals(upper)) {
+            throw new IllegalArgumentException("Granularity must be MINUTE or HOUR");
+        }
+        return upper;
+    }
+
+    private static void addTo(ConcurrentHashMap<BucketKey, Bucket> buckets, BucketKey key,
+                              LocalDateTime requestTimestamp, String responseStatus) {
+        buckets.compute(key, (k, bucket) -> {
+            Bucket target = bucket != null ? bucket : new Bucket();
+            target.add(requestTimestamp, responseStatus);
+            return target;
+        });
+    }
+
+    private static void addRows(List<Object[]> rows, String granularity, Map<BucketKey, Bucket> buckets) {
+        for (Map.Entry<BucketKey, Bucket> entry : buckets.entrySet()) {
+            Bucket bucket = entry.getValue();
+            rows.add(new Object[] {
+                granularity, entry.getKey().terminalId, Timestamp.valueOf(entry.getKey().bucketStart),
+                bucket.echoCount, bucket.successCount, bucket.unauthorizedCount, bucket.notFoundCount,
+                Timestamp.valueOf(bucket.firstEcho), Timestamp.valueOf(bucket.lastEcho)
+            });
+        }
+    }
+
+    private static final class BucketKey implements Comparable<BucketKey> {
+        final String terminalId;
+        final LocalDateTime bucketStart;
+
+        BucketKey(String terminalId, LocalDateTime bucketStart) {
+            this.terminalId = terminalId;
+            this.bucketStart = bucketStart;
+        }
+
+        @Override
+        public int compareTo(BucketKey other) {
+            int byTerminal = terminalId.compareTo(other.terminalId);
+            return byTerminal != 0 ? byTerminal : bucketStart.compareTo(other.bucketStart);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof BucketKey)) {
+                return false;
+            }
+            BucketKey other = (BucketKey) o;
+            return terminalId.equals(other.terminalId) && bucketStart.equals(other.bucketStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(terminalId, bucketStart);
+        }
+    }
+
+    // Only mutated inside ConcurrentHashMap.compute or after the pending map was swapped out
+    private static final class Bucket {
+        long echoCount;
+        long successCount;
+        long unauthorizedCount;
+        long notFoundCount;
+        LocalDateTime firstEcho;
+        LocalDateTime lastEcho;
+
+        void add(LocalDateTime requestTimestamp, String responseStatus) {
+            echoCount++;
+            if (EchoProcessingService.SUCCESS.equals(responseStatus)) {
+                successCount++;
+            } else if (EchoProcessingService.UNAUTHORIZED.equals(responseStatus)) {
+                unauthorizedCount++;
+            } else if (EchoProcessingService.NOT_FOUND.equals(responseStatus)) {
+                notFoundCount++;
+            }
+            widen(requestTimestamp, requestTimestamp);
+        }
+
+        void add(EchoRollup rollup) {
+            echoCount += rollup.getEchoCount();
+            successCount += rollup.getSuccessCount();
+            unauthorizedCount += rollup.getUnauthorizedCount();
+            notFoundCount += rollup.getNotFoundCount();
+            widen(rollup.getFirstEcho(), rollup.getLastEcho());
+        }
+
+        Bucket merge(Bucket other) {
+            echoCount += other.echoCount;
+            successCount += other.successCount;
+            unauthorizedCount += other.unauthorizedCount;
+            notFoundCount += other.notFoundCount;
+            widen(other.firstEcho, other.lastEcho);
+            return this;
+        }
+
+        EchoTimeseriesPointDto toPoint(LocalDateTime bucketStart) {
+            return new EchoTimeseriesPointDto(bucketStart, echoCount, successCount,
+                unauthorizedCount, notFoundCount, firstEcho, lastEcho);
+        }
+
+        private void widen(LocalDateTime first, LocalDateTime last) {
+            if (first != null && (firstEcho == null || first.isBefore(firstEcho))) {
+                firstEcho = first;
+            }
+            if (last != null && (lastEcho == null || last.isAfter(lastEcho))) {
+                lastEcho = last;
+            }
+        }
+    }
+}
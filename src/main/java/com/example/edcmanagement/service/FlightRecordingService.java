@@ -0,0 +1,166 @@
+package com.example.edcmanagement.service;
+
+import com.example.edcmanagement.dto.FlightRecordingStatusDto;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * On-demand JDK Flight Recorder recording of the echo pipeline.
+ *
+ * The echo events ({@link EchoRequestEvent}, {@link SignatureValidationEvent},
+ * {@link LastPingUpdateEvent}, {@link EchoLogSaveEvent}) are only written
+ * while a recording enables them; otherwise each costs one disabled check.
+ * A recording also carries the JDK events of the chosen settings (GC, lock
+ * contention, socket reads and so on), so slow echoes can be lined up against
+ * them. Recordings are bounded in age, size and duration, and only one exists
+ * at a time.
+ */
+@Service
+public class FlightRecordingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecordingService.class);
+
+    private static final String RECORDING_NAME = "edc-echo";
+
+    // The settings files shipped with the JDK
+    private static final List<String> SETTINGS = Arrays.asList("default", "profile");
+
+    private static final List<Class<? extends Event>> ECHO_EVENTS = Arrays.asList(
+        EchoRequestEvent.class, SignatureValidationEvent.class, LastPingUpdateEvent.class, EchoLogSaveEvent.class);
+
+    @Value("${app.jfr.max-age-minutes:15}")
+    private long maxAgeMinutes;
+
+    @Value("${app.jfr.max-size-mb:100}")
+    private long maxSizeMb;
+
+    @Value("${app.jfr.max-duration-minutes:60}")
+    private long maxDurationMinutes;
+
+    @Value("${app.jfr.echo-threshold-ms:0}")
+    private long defaultEchoThresholdMs;
+
+    private Recording recording;
+    private String recordingSettings;
+
+    /**
+     * Starts a new recording, discarding a stopped one that was not dumped.
+     * @param durationMinutes Stops the recording after this long, at most app.jfr.max-duration-minutes
+     * @param echoThresholdMs Only echo events at least this long are recorded, or null for the configured default
+     * @param settings default (low overhead) or profile (more detail)
+     * @throws IllegalArgumentException if an argument is out of range
+     * @throws IllegalStateException if a recording is already running
+     */
+    public synchronized FlightRecordingStatusDto start(Long durationMinutes, Long echoThresholdMs, String settings)
+            throws IOException {
+        if (!SETTINGS.contains(settings)) {
+            throw new IllegalArgumentException("Settings must be one of " + SETTINGS);
+        }
+        long duration = durationMinutes != null ? durationMinutes : maxDurationMinutes;
+        if (duration < 1 || duration > maxDurationMinutes) {
+            throw new IllegalArgumentException("Duration must be between 1 and " + maxDurationMinutes + " minutes");
+        }
+        long threshold = echoThresholdMs != null ? echoThresholdMs : defaultEchoThresholdMs;
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative");
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A flight recording is already running");
+        }
+
+        Recording next;
+        try {
+            next = new Recording(Configuration.getConfiguration(settings));
+        } catch (ParseException e) {
+            throw new IOException("Unreadable JFR settings " + settings, e);
+        }
+        next.setName(RECORDING_NAME);
+        next.setToDisk(true);
+        next.setMaxAge(Duration.ofMinutes(maxAgeMinutes));
+        next.setMaxSize(maxSizeMb * 1024 * 1024);
+        next.setDuration(Duration.ofMinutes(duration));
+        for (Class<? extends Event> eventType : ECHO_EVENTS) {
+            next.enable(eventType).withThreshold(Duration.ofMillis(threshold));
+        }
+
+        close();
+        next.start();
+        recording = next;
+        recordingSettings = settings;
+
+        logger.info("Flight recording started with {} settings for {} minutes, echo threshold {} ms",
+                   settings, duration, threshold);
+        return getStatus();
+    }
+
+    /**
+     * Stops the running recording; its data stays available for {@link #dump()}.
+     * @throws IllegalStateException if no recording is running
+     */
+    public synchronized FlightRecordingStatusDto stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("No flight recording is running");
+        }
+        recording.stop();
+        logger.info("Flight recording stopped, {} bytes recorded", recording.getSize());
+        return getStatus();
+    }
+
+    /**
+     * Writes the data of the current or last recording to a temporary file,
+     * which the caller must delete.
+     * @throws IllegalStateException if there is no recording to dump
+     */
+    public synchronized Path dump() throws IOException {
+        if (recording == null
+                || (recording.getState() != RecordingState.RUNNING && recording.getState() != RecordingState.STOPPED)) {
+            throw new IllegalStateException("No flight recording to dump");
+        }
+        Path file = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    public synchronized FlightRecordingStatusDto getStatus() {
+        if (recording == null) {
+            return new FlightRecordingStatusDto("NONE", null, null, null,
+                maxAgeMinutes * 60, maxSizeMb * 1024 * 1024, 0);
+        }
+        LocalDateTime startTime = recording.getStartTime() != null
+            ? LocalDateTime.ofInstant(recording.getStartTime(), ZoneId.systemDefault()) : null;
+        Duration duration = recording.getDuration();
+        return new FlightRecordingStatusDto(recording.getState().name(), recordingSettings, startTime,
+            duration != null ? duration.getSeconds() : null,
+            recording.getMaxAge().getSeconds(), recording.getMaxSize(), recording.getSize());
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.edcmanagement.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hashed timer wheel of heartbeat deadlines, one entry per terminal.
+ *
+ * A heartbeat only moves the terminal's deadline forward; the entry stays in
+ * the slot it was scheduled in. When that slot comes up, entries whose
+ * deadline has moved are rescheduled and the rest expire. Every terminal is
+ * therefore touched about once per timeout however often it pings, and
+ * advancing the wheel costs only the entries in the slots passed.
+ */
+final class HeartbeatWheel {
+
+    private static final class Entry {
+        final String terminalId;
+        volatile long deadline;
+        volatile boolean removed;
+        Entry next;
+
+        Entry(String terminalId, long deadline) {
+            this.terminalId = terminalId;
+            this.deadline = deadline;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Entry[] slots;
+    private final long tickMillis;
+
+    // Next tick whose slot has not been processed yet
+    private long cursor;
+
+    /**
+     * @param tickMillis resolution of deadlines
+     * @param slotCount number of slots; a wheel spanning the heartbeat timeout
+     *                  never has to look at an entry more than once per timeout
+     */
+    HeartbeatWheel(long tickMillis, int slotCount, long now) {
+        this.tickMillis = tickMillis;
+        this.slots = new Entry[slotCount];
+        this.cursor = now / tickMillis;
+    }
+
+    /**
+     * Extends the terminal's deadline, tracking it if it is not tracked yet.
+     */
+    void heartbeat(String terminalId, long deadline) {
+        Entry entry = entries.get(terminalId);
+        if (entry == null) {
+            track(terminalId, deadline);
+            return;
+        }
+
+        if (deadline > entry.deadline) {
+            entry.deadline = deadline;
+        }
+        // Expired concurrently: the new deadline may not have been seen
+        if (entry.removed) {
+            track(terminalId, deadline);
+        }
+    }
+
+    synchronized void track(String terminalId, long deadline) {
+        Entry entry = entries.get(terminalId);
+        if (entry != null) {
+            if (deadline > entry.deadline) {
+                entry.deadline = deadline;
+            }
+            return;
+        }
+
+        entry = new Entry(terminalId, deadline);
+        entries.put(terminalId, entry);
+        schedule(entry);
+    }
+
+    synchronized void remove(String terminalId) {
+        Entry entry = entries.remove(terminalId);
+        if (entry != null) {
+            // Dropped from its slot when the slot comes up
+            entry.removed = true;
+        }
+    }
+
+    /**
+     * Processes every slot up to {@code now}.
+     * @return the terminals whose deadline has passed; they are no longer tracked
+     */
+    synchronized List<String> advance(long now) {
+        List<String> expired = new ArrayList<>();
+        long target = now / tickMillis;
+        // Past one full turn every slot has been visited
+        if (target - cursor >= slots.length) {
+            cursor = target - slots.length + 1;
+        }
+
+        while (cursor <= target) {
+            int slot = (int) (cursor % slots.length);
+            Entry entry = slots[slot];
+            slots[slot] = null;
+            cursor++;
+
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.next = null;
+                process(entry, now, expired);
+                entry = next;
+            }
+        }
+        return expired;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void process(Entry entry, long now, List<String> expired) {
+        if (entry.removed) {
+            return;
+        }
+        if (entry.deadline > now) {
+            schedule(entry);
+            return;
+        }
+
+        entries.remove(entry.terminalId, entry);
+        entry.removed = true;
+        // A heartbeat that raced with the removal is kept
+        if (entry.deadline > now) {
+            track(entry.terminalId, entry.deadline);
+            return;
+        }
+        expired.add(entry.terminalId);
+    }
+
+    private void schedule(Entry entry) {
+        // Deadlines already passed go into the next slot to be processed
+        long tick = Math.max(entry.deadline / tickMillis, cursor);
+        int slot = (int) (tick % slots.length);
+        entry.next = slots[slot];
+        slots[slot] = entry;
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.edcmanagement.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+
+/**
+ * HMAC-SHA256 engine behind {@link SignatureService}.
+ *
+ * HMAC (RFC 2104) is computed directly on top of a per-thread SHA-256
+ * {@link MessageDigest} rather than a per-thread {@code Mac}. The key changes
+ * with every second, and {@code Mac.init} would need a new {@code SecretKeySpec}
+ * and key copies each time. Owning the construction also exposes the padded
+ * key blocks, which {@link SignatureKeyCache} keeps per second as
+ * {@link KeyState}s, so a cached key skips formatting and padding. The key
+ * ({@code yyyy-MM-dd HH:mm:ss|secret}), the message and the digests are
+ * written into reusable per-thread buffers, so a verification of an ASCII
+ * terminal ID allocates nothing, and the comparison is constant time.
+ * Starting from the digest states after the padded blocks would save two
+ * SHA-256 blocks per MAC, but the JDK can only reuse a digest state by
+ * cloning it, which allocates on every MAC. HmacSignatureVerifierTest checks
+ * the result against the RFC 4231 vectors and commons-codec, and that
+ * verification does not allocate.
+ */
+final class HmacSignatureVerifier {
+
+    static final int BLOCK_SIZE = 64;
+    static final int MAC_LENGTH = 32;
+    static final int DATE_TIME_LENGTH = 19;
+
+    private static final byte IPAD = 0x36;
+    private static final byte OPAD = 0x5c;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final byte[] secretSuffix;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    HmacSignatureVerifier(String secret) {
+        this.secretSuffix = ("|" + secret).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes a lowercase hex signature into the calling thread's buffer.
+     * @param signature The signature from the request header
+     * @return false if the signature is not a 64 character lowercase hex string
+     */
+    boolean decodeSignature(String signature) {
+        if (signature.length() != MAC_LENGTH * 2) {
+            return false;
+        }
+
+        byte[] received = scratch.get().received;
+        for (int i = 0; i < MAC_LENGTH; i++) {
+            int high = hexValue(signature.charAt(i * 2));
+            int low = hexValue(signature.charAt(i * 2 + 1));
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            received[i] = (byte) ((high << 4) | low);
+        }
+        return true;
+    }
+
+    /**
+     * Checks the signature last decoded on this thread against the HMAC of
+     * the terminal ID keyed with the given datetime.
+     */
+    boolean matches(String terminalId, LocalDateTime dateTime) {
+        Scratch s = scratch.get();
+        deriveKey(s, dateTime);
+        return matchesDerivedKey(s, s.key, terminalId);
+    }
+
+    /**
+     * Checks the signature last decoded on this thread against the HMAC of
+     * the terminal ID under a key from {@link #deriveKeyState(LocalDateTime)}.
+     */
+    boolean matches(String terminalId, KeyState key) {
+        Scratch s = scratch.get();
+        computeMac(s, key, terminalId);
+        return MessageDigest.isEqual(s.expected, s.received);
+    }
+
+    /**
+     * Derives the key for a datetime and absorbs its padded blocks into a
+     * {@link KeyState} that any number of threads can sign with.
+     */
+    KeyState deriveKeyState(LocalDateTime dateTime) {
+        Scratch s = scratch.get();
+        deriveKey(s, dateTime);
+        return keyState(s);
+    }
+
+    /**
+     * Absorbs an arbitrary key into a {@link KeyState}.
+     */
+    KeyState keyState(byte[] key) {
+        Scratch s = scratch.get();
+        prepareKey(s, key, key.length);
+        return keyState(s);
+    }
+
+    /**
+     * Generates the hex signature for a terminal ID and datetime.
+     */
+    String sign(String terminalId, LocalDateTime dateTime) {
+        Scratch s = scratch.get();
+        deriveKey(s, dateTime);
+        computeMac(s, s.key, terminalId);
+        return toHex(s.expected);
+    }
+
+    /**
+     * Generates the hex HMAC of a message under an arbitrary key.
+     */
+    String sign(byte[] key, String message) {
+        Scratch s = scratch.get();
+        prepareKey(s, key, key.length);
+        computeMac(s, s.key, message);
+        return toHex(s.expected);
+    }
+
+    /**
+     * Generates the hex HMAC of a message under a key from {@link #keyState(byte[])}
+     * or {@link #deriveKeyState(LocalDateTime)}.
+     */
+    String sign(String message, KeyState key) {
+        Scratch s = scratch.get();
+        computeMac(s, key, message);
+        return toHex(s.expected);
+    }
+
+    private boolean matchesDerivedKey(Scratch s, byte[] key, String terminalId) {
+        computeMac(s, key, terminalId);
+        return MessageDigest.isEqual(s.expected, s.received);
+    }
+
+    private KeyState keyState(Scratch s) {
+        byte[] innerPad = new byte[BLOCK_SIZE];
+        byte[] outerPad = new byte[BLOCK_SIZE];
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            innerPad[i] = (byte) (s.key[i] ^ IPAD);
+            outerPad[i] = (byte) (s.key[i] ^ OPAD);
+        }
+        return new KeyState(innerPad, outerPad);
+    }
+
+    private void deriveKey(Scratch s, LocalDateTime dateTime) {
+        byte[] material = s.keyMaterial;
+        writeDigits(material, 0, dateTime.getYear(), 4);
+        material[4] = '-';
+        writeDigits(material, 5, dateTime.getMonthValue(), 2);
+        material[7] = '-';
+        writeDigits(material, 8, dateTime.getDayOfMonth(), 2);
+        material[10] = ' ';
+        writeDigits(material, 11, dateTime.getHour(), 2);
+        material[13] = ':';
+        writeDigits(material, 14, dateTime.getMinute(), 2);
+        material[16] = ':';
+        writeDigits(material, 17, dateTime.getSecond(), 2);
+
+        prepareKey(s, material, material.length);
+    }
+
+    // Zero pads the key to the block size into s.key
+    private void prepareKey(Scratch s, byte[] key, int length) {
+        if (length > BLOCK_SIZE) {
+            // Keys longer than the block size are hashed first (RFC 2104)
+            s.digest.update(key, 0, length);
+            digestInto(s.digest, s.key);
+            fill(s.key, MAC_LENGTH);
+        } else {
+            System.arraycopy(key, 0, s.key, 0, length);
+            fill(s.key, length);
+        }
+    }
+
+    private void computeMac(Scratch s, byte[] key, String terminalId) {
+        MessageDigest digest = s.digest;
+
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            s.pad[i] = (byte) (key[i] ^ IPAD);
+        }
+        digest.update(s.pad, 0, BLOCK_SIZE);
+        updateMessage(digest, s, terminalId);
+        digestInto(digest, s.inner);
+
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            s.pad[i] = (byte) (key[i] ^ OPAD);
+        }
+        digest.update(s.pad, 0, BLOCK_SIZE);
+        digest.update(s.inner, 0, MAC_LENGTH);
+        digestInto(digest, s.expected);
+    }
+
+    // Same as above, with the padded key blocks already computed
+    private void computeMac(Scratch s, KeyState key, String message) {
+        MessageDigest digest = s.digest;
+
+        digest.update(key.innerPad, 0, BLOCK_SIZE);
+        updateMessage(digest, s, message);
+        digestInto(digest, s.inner);
+
+        digest.update(key.outerPad, 0, BLOCK_SIZE);
+        digest.update(s.inner, 0, MAC_LENGTH);
+        digestInto(digest, s.expected);
+    }
+
+    private void updateMessage(MessageDigest digest, Scratch s, String message) {
+        int length = message.length();
+        if (length > s.message.length) {
+            s.message = new byte[Math.max(length, s.message.length * 2)];
+        }
+
+        byte[] buffer = s.message;
+        for (int i = 0; i < length; i++) {
+            char c = message.charAt(i);
+            if (c >= 0x80) {
+                // Non-ASCII terminal IDs are rare; fall back to a regular UTF-8 encode
+                byte[] encoded = message.getBytes(StandardCharsets.UTF_8);
+                digest.update(encoded, 0, encoded.length);
+                return;
+            }
+            buffer[i] = (byte) c;
+        }
+        digest.update(buffer, 0, length);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void digestInto(MessageDigest digest, byte[] out) {
+        try {
+            digest.digest(out, 0, MAC_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException("Unable to compute SHA-256 digest", e);
+        }
+    }
+
+    private static String toHex(byte[] mac) {
+        char[] hex = new char[MAC_LENGTH * 2];
+        for (int i = 0; i < MAC_LENGTH; i++) {
+            hex[i * 2] = HEX[(mac[i] >> 4) & 0x0f];
+            hex[i * 2 + 1] = HEX[mac[i] & 0x0f];
+        }
+        return new String(hex);
+    }
+
+    private static void writeDigits(byte[] buffer, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static void fill(byte[] buffer, int from) {
+        for (int i = from; i < buffer.length; i++) {
+            buffer[i] = 0;
+        }
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        return -1;
+    }
+
+    private final class Scratch {
+        final MessageDigest digest;
+        final byte[] keyMaterial = new byte[DATE_TIME_LENGTH + secretSuffix.length];
+        final byte[] key = new byte[BLOCK_SIZE];
+        final byte[] pad = new byte[BLOCK_SIZE];
+        final byte[] inner = new byte[MAC_LENGTH];
+        final byte[] expected = new byte[MAC_LENGTH];
+        final byte[] received = new byte[MAC_LENGTH];
+        byte[] message = new byte[64];
+
+        Scratch() {
+            this.digest = newDigest();
+            System.arraycopy(secretSuffix, 0, keyMaterial, DATE_TIME_LENGTH, secretSuffix.length);
+        }
+    }
+
+    /**
+     * The padded inner ({@code key ^ ipad}) and outer ({@code key ^ opad})
+     * key blocks, where every HMAC under one key starts. Never modified after
+     * construction, so a KeyState can be shared between threads.
+     */
+    static final class KeyState {
+        private final byte[] innerPad;
+        private final byte[] outerPad;
+
+        private KeyState(byte[] innerPad, byte[] outerPad) {
+            this.innerPad = innerPad;
+            this.outerPad = outerPad;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.edcmanagement.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a terminal last-ping update.
+ */
+@Name("com.example.edcmanagement.LastPingUpdate")
+@Label("Last Ping Update")
+@Description("A terminal last-ping update, buffered or written directly")
+@Category({ "EDC Management", "Echo" })
+@StackTrace(false)
+public class LastPingUpdateEvent extends Event {
+
+    @Label("Terminal ID")
+    public String terminalId;
+
+    @Label("Outcome")
+    @Description("buffered, updated, not_found or error")
+    public String outcome;
+}
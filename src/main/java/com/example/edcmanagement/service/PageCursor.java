@@ -0,0 +1,84 @@
+package com.example.edcmanagement.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque continuation tokens for keyset pagination: the sort key of the last
+ * row of a page, base64url encoded. Malformed tokens are rejected with an
+ * {@link IllegalArgumentException}.
+ */
+final class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private PageCursor() {
+    }
+
+    static String encode(LocalDateTime timestamp, Long id) {
+        return encode(timestamp + SEPARATOR + id);
+    }
+
+    static String encode(float distance, Long id) {
+        // Float.toString round-trips exactly, so the next page compares against the same value
+        return encode(distance + SEPARATOR + id);
+    }
+
+    static String encode(Long id) {
+        return encode(String.valueOf(id));
+    }
+
+    /**
+     * @return the timestamp and id of a (timestamp, id) cursor
+     */
+    static Object[] decodeTimestampAndId(String cursor) {
+        String[] parts = split(cursor);
+        try {
+            return new Object[] { LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]) };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * @return the distance and id of a (distance, id) cursor
+     */
+    static Object[] decodeDistanceAndId(String cursor) {
+        String[] parts = split(cursor);
+        try {
+            return new Object[] { Float.valueOf(parts[0]), Long.valueOf(parts[1]) };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    static Long decodeId(String cursor) {
+        try {
+            return Long.valueOf(decode(cursor));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private static String[] split(String cursor) {
+        String value = decode(cursor);
+        int separator = value.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new String[] { value.substring(0, separator), value.substring(separator + 1) };
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
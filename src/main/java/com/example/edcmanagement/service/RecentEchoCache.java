@@ -0,0 +1,225 @@
+package com.example.edcmanagement.service;
+
+import com.example.edcmanagement.dto.EchoLogDto;
+import com.example.edcmanagement.entity.EchoLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hot tier of recent echo logs: a fixed-size {@link EchoRing} per terminal,
+ * filled with every echo log this node persists.
+ *
+ * A ring answers a time window only if it holds every echo log of that
+ * window: from when the ring was created, minus whatever it has overwritten.
+ * Rings of terminals that stopped echoing are evicted after
+ * {@code idle-eviction-minutes}, and the least recently written ones are
+ * evicted early when the rings would exceed {@code max-memory-mb}. Evicting
+ * a ring also raises the point from which the tier covers all terminals.
+ *
+ * Disabled by default: a ring only sees echo logs written by this node, and
+ * nothing tells it about another node's writes, so with several nodes it
+ * would answer windows with echoes missing. Enable it only on a single node
+ * or when the load balancer pins every terminal to one node.
+ */
+@Component
+public class RecentEchoCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecentEchoCache.class);
+
+    // Evict this share of the rings when the memory cap is hit, so eviction is not run per insert
+    private static final double EVICTION_FRACTION = 0.1;
+
+    @Value("${app.echo-log.hot-tier.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.echo-log.hot-tier.events-per-terminal:256}")
+    private int eventsPerTerminal;
+
+    @Value("${app.echo-log.hot-tier.max-memory-mb:64}")
+    private long maxMemoryMb;
+
+    @Value("${app.echo-log.hot-tier.idle-eviction-minutes:360}")
+    private long idleEvictionMinutes;
+
+    @Value("${app.echo-log.hot-tier.dictionary-size:65536}")
+    private int dictionarySize;
+
+    private final Map<String, EchoRing> rings = new ConcurrentHashMap<>();
+    private final AtomicLong memoryBytes = new AtomicLong();
+
+    private StringDictionary dictionary;
+    private long maxMemoryBytes;
+
+    // Every echo log at or after this instant (epoch micros) is in some ring
+    private volatile long coveredSince;
+
+    @PostConstruct
+    public void init() {
+        dictionary = new StringDictionary(dictionarySize);
+        maxMemoryBytes = maxMemoryMb * 1024 * 1024;
+        coveredSince = now();
+        logger.info("Echo hot tier {}: {} events per terminal, {} MB cap",
+            enabled ? "enabled" : "disabled", eventsPerTerminal, maxMemoryMb);
+    }
+
+    public void record(Long id, String terminalId, LocalDateTime requestTimestamp, String responseStatus,
+                       String clientIp, String userAgent, Boolean signatureValid, String errorMessage) {
+        if (!enabled || id == null || terminalId == null || requestTimestamp == null) {
+            return;
+        }
+
+        long now = now();
+        EchoRing ring = rings.get(terminalId);
+        if (ring == null) {
+            // Until now every echo of this terminal would have been in a ring
+            ring = rings.computeIfAbsent(terminalId, key -> {
+                EchoRing created = new EchoRing(key, eventsPerTerminal, dictionary, coveredSince, now);
+                memoryBytes.addAndGet(created.memoryBytes());
+                return created;
+            });
+            if (memoryBytes.get() > maxMemoryBytes) {
+                evictLeastRecentlyWritten(terminalId);
+            }
+        }
+
+        long grown = ring.add(id, EchoRing.toMicros(requestTimestamp), responseStatus, signatureValid,
+            clientIp, userAgent, errorMessage, now);
+        if (grown != 0) {
+            memoryBytes.addAndGet(grown);
+        }
+    }
+
+    public void recordAll(Collection<EchoLog> echoLogs) {
+        for (EchoLog echoLog : echoLogs) {
+            record(echoLog.getId(), echoLog.getTerminalId(), echoLog.getRequestTimestamp(),
+                echoLog.getResponseStatus(), echoLog.getClientIp(), echoLog.getUserAgent(),
+                echoLog.getSignatureValid(), echoLog.getErrorMessage());
+        }
+    }
+
+    /**
+     * Echo logs of one terminal with start <= requestTimestamp <= end, newest
+     * first, or null if the hot tier does not hold the whole window.
+     */
+    public List<EchoLogDto> findByTerminalId(String terminalId, LocalDateTime start, LocalDateTime end) {
+        if (!enabled) {
+            return null;
+        }
+
+        long from = EchoRing.toMicros(start);
+        EchoRing ring = rings.get(terminalId);
+        if (ring == null) {
+            // No ring and nothing evicted since the window started: no echoes
+            return coveredSince <= from ? new ArrayList<>() : null;
+        }
+        if (ring.getCoveredSince() > from) {
+            return null;
+        }
+
+        List<EchoLogDto> echoLogs = new ArrayList<>();
+        ring.collect(from, EchoRing.toMicros(end), echoLogs);
+        return echoLogs;
+    }
+
+    /**
+     * Echo logs of all terminals with start <= requestTimestamp <= end, newest
+     * first, or null if the hot tier does not hold the whole window.
+     */
+    public List<EchoLogDto> findAll(LocalDateTime start, LocalDateTime end) {
+        long from = EchoRing.toMicros(start);
+        if (!enabled || coveredSince > from) {
+            return null;
+        }
+
+        long to = EchoRing.toMicros(end);
+        List<EchoLogDto> echoLogs = new ArrayList<>();
+        for (EchoRing ring : rings.values()) {
+            if (ring.getCoveredSince() > from) {
+                return null;
+            }
+            ring.collect(from, to, echoLogs);
+        }
+        echoLogs.sort(Comparator.comparing(EchoLogDto::getRequestTimestamp).reversed());
+        return echoLogs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.echo-log.hot-tier.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        if (!enabled) {
+            return;
+        }
+
+        long cutoff = now() - idleEvictionMinutes * 60_000_000L;
+        int evicted = 0;
+        for (Map.Entry<String, EchoRing> entry : rings.entrySet()) {
+            if (entry.getValue().getLastWrite() < cutoff && evict(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle terminals from the echo hot tier, {} remain", evicted, rings.size());
+        }
+    }
+
+    public int getTerminalCount() {
+        return rings.size();
+    }
+
+    public long getMemoryBytes() {
+        return memoryBytes.get();
+    }
+
+    private synchronized void evictLeastRecentlyWritten(String keep) {
+        if (memoryBytes.get() <= maxMemoryBytes) {
+            return;
+        }
+
+        List<Map.Entry<String, EchoRing>> candidates = new ArrayList<>(rings.entrySet());
+        candidates.sort(Comparator.comparingLong(entry -> entry.getValue().getLastWrite()));
+
+        int target = Math.max(1, (int) (candidates.size() * EVICTION_FRACTION));
+        int evicted = 0;
+        for (Map.Entry<String, EchoRing> entry : candidates) {
+            if (evicted >= target) {
+                break;
+            }
+            if (!entry.getKey().equals(keep) && evict(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        logger.info("Echo hot tier over {} MB, evicted {} least recently written terminals", maxMemoryMb, evicted);
+    }
+
+    private boolean evict(String terminalId, EchoRing ring) {
+        // Raised first so a ring created again for the terminal starts after the evicted one
+        raiseCoveredSince(now());
+        if (!rings.remove(terminalId, ring)) {
+            return false;
+        }
+        memoryBytes.addAndGet(-ring.memoryBytes());
+        return true;
+    }
+
+    private synchronized void raiseCoveredSince(long since) {
+        if (since > coveredSince) {
+            coveredSince = since;
+        }
+    }
+
+    private static long now() {
+        return EchoRing.toMicros(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.edcmanagement.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ring buffer of pre-derived HMAC key states for every second of the
+ * signature acceptance window ({@code now - windowSeconds .. now + windowSeconds}).
+ *
+ * Seconds are addressed as "local epoch seconds", i.e. the wall clock fields of a
+ * {@link LocalDateTime} encoded with {@link ZoneOffset#UTC}, which is exactly what
+ * the {@code yyyy-MM-dd HH:mm:ss} part of the key is derived from. Slots are
+ * immutable and only written by {@link #advance(long)}, so request threads read
+ * them without locking or allocating.
+ */
+final class SignatureKeyCache {
+
+    private final HmacSignatureVerifier verifier;
+    private final int windowSeconds;
+    private final AtomicReferenceArray<KeySlot> slots;
+
+    SignatureKeyCache(HmacSignatureVerifier verifier, int windowSeconds) {
+        this.verifier = verifier;
+        this.windowSeconds = windowSeconds;
+        // A little slack so a late scheduler tick does not evict keys still in use
+        this.slots = new AtomicReferenceArray<>(windowSeconds * 2 + 8);
+    }
+
+    static long toLocalSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Returns the key state for a local epoch second, or null when the
+     * second is outside the cached window.
+     */
+    HmacSignatureVerifier.KeyState get(long localSecond) {
+        KeySlot slot = slots.get(index(localSecond));
+        return slot != null && slot.second == localSecond ? slot.key : null;
+    }
+
+    /**
+     * Derives every key of the window centred on {@code nowLocalSecond} that
+     * is not cached yet. Once warm this derives a single key per second.
+     * @return the number of keys derived
+     */
+    int advance(long nowLocalSecond) {
+        int derived = 0;
+        for (long second = nowLocalSecond - windowSeconds; second <= nowLocalSecond + windowSeconds; second++) {
+            int index = index(second);
+            KeySlot slot = slots.get(index);
+            if (slot == null || slot.second != second) {
+                slots.set(index, new KeySlot(second,
+                    verifier.deriveKeyState(LocalDateTime.ofEpochSecond(second, 0, ZoneOffset.UTC))));
+                derived++;
+            }
+        }
+        return derived;
+    }
+
+    int getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    private int index(long localSecond) {
+        return (int) Math.floorMod(localSecond, (long) slots.length());
+    }
+
+    private static final class KeySlot {
+        final long second;
+        final HmacSignatureVerifier.KeyState key;
+
+        KeySlot(long second, HmacSignatureVerifier.KeyState key) {
+            this.second = second;
+            this.key = key;
+        }
+    }
+}
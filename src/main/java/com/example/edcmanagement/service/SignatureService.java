@@ -1,13 +1,16 @@
 package com.example.edcmanagement.service;
 
-import org.apache.commons.codec.digest.HmacAlgorithms;
-import org.apache.commons.codec.digest.HmacUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 
 @Service
@@ -19,35 +22,63 @@ public class SignatureService {
     @Value("${app.hmac.secret}")
     private String secretKey;
     
+    @Value("${app.hmac.max-clock-skew-seconds:120}")
+    private long maxClockSkewSeconds;
+    
+    @Value("${app.hmac.legacy-tolerance.enabled:true}")
+    private boolean legacyToleranceEnabled;
+    
+    @Value("${app.hmac.legacy-tolerance.minutes:2}")
+    private int legacyToleranceMinutes;
+    
+    @Value("${app.hmac.key-cache.enabled:true}")
+    private boolean keyCacheEnabled;
+    
+    @Value("${app.hmac.key-cache.window-seconds:150}")
+    private int keyCacheWindowSeconds;
+    
+    @Autowired
+    private EchoMetrics echoMetrics;
+    
+    private HmacSignatureVerifier verifier;
+    
+    private SignatureKeyCache keyCache;
+    
+    @PostConstruct
+    public void init() {
+        verifier = new HmacSignatureVerifier(secretKey);
+        
+        if (keyCacheEnabled) {
+            keyCache = new SignatureKeyCache(verifier, keyCacheWindowSeconds);
+            advanceKeyWindow();
+            logger.info("Signature key cache enabled with a window of +/- {} seconds", keyCacheWindowSeconds);
+        }
+    }
+    
+    /**
+     * Derives the key for the second entering the acceptance window so request
+     * threads only ever read pre-derived keys.
+     */
+    @Scheduled(fixedRate = 1000)
+    public void advanceKeyWindow() {
+        if (keyCache == null) {
+            return;
+        }
+        
+        int derived = keyCache.advance(SignatureKeyCache.toLocalSecond(LocalDateTime.now()));
+        if (derived > 1) {
+            logger.debug("Signature key cache derived {} keys", derived);
+        }
+    }
+    
     public boolean validateSignature(String signature, String terminalId, LocalDateTime requestDateTime) {
         try {
-            if (signature == null || signature.trim().isEmpty()) {
-                logger.warn("Signature is null or empty");
-                return false;
-            }
-            
-            if (terminalId == null || terminalId.trim().isEmpty()) {
-                logger.warn("Terminal ID is null or empty");
+            if (!decodeSignature(signature, terminalId)) {
                 return false;
             }
             
-            // Create the key: dateTime|EDCmgmt2025!.?
-            String dateTimeString = requestDateTime.format(DATE_TIME_FORMATTER);
-            String key = dateTimeString + "|" + secretKey;
-            
-            // Create the message to be signed (terminalId)
-            String message = terminalId;
-            
-            // Generate expected signature
-            String expectedSignature = generateHmacSHA256(message, key);
-            
-            logger.debug("Generated key: {}", key);
-            logger.debug("Message: {}", message);
-            logger.debug("Expected signature: {}", expectedSignature);
-            logger.debug("Received signature: {}", signature);
-            
-            // Compare signatures
-            boolean isValid = expectedSignature.equals(signature);
+            // Key: dateTime|EDCmgmt2025!.? , message: terminalId
+            boolean isValid = matchesAt(terminalId, SignatureKeyCache.toLocalSecond(requestDateTime));
             
             if (isValid) {
                 logger.info("Signature validation successful for terminal: {}", terminalId);
@@ -63,16 +94,6 @@ public class SignatureService {
         }
     }
     
-    /**
-     * Generates HMAC-SHA256 signature
-     * @param message The message to be signed
-     * @param key The secret key
-     * @return The HMAC-SHA256 signature as hex string
-     */
-    private String generateHmacSHA256(String message, String key) {
-        return new HmacUtils(HmacAlgorithms.HMAC_SHA_256, key).hmacHex(message);
-    }
-    
     /**
      * Generates a signature for testing purposes
      * @param terminalId The terminal ID
@@ -80,9 +101,80 @@ public class SignatureService {
      * @return The generated signature
      */
     public String generateSignatureForTesting(String terminalId, LocalDateTime dateTime) {
-        String dateTimeString = dateTime.format(DATE_TIME_FORMATTER);
-        String key = dateTimeString + "|" + secretKey;
-        return generateHmacSHA256(terminalId, key);
+        logger.debug("Generating signature for terminal {} at {}", terminalId, dateTime.format(DATE_TIME_FORMATTER));
+        return verifier.sign(terminalId, dateTime);
+    }
+    
+    /**
+     * Validates the signature of an echo request.
+     * Terminals that send their signing time are checked with a single HMAC against
+     * the clock skew window; terminals without it fall back to the legacy tolerance
+     * search when that mode is enabled.
+     * @param signature The signature from the request header
+     * @param terminalId The terminal ID from the request body
+     * @param requestTime The signing time sent by the terminal (yyyy-MM-dd HH:mm:ss), may be null
+     * @param receivedDateTime The datetime when the request was received
+     * @return true if the signature is valid, false otherwise
+     */
+    public boolean validateEchoSignature(String signature, String terminalId,
+                                         String requestTime, LocalDateTime receivedDateTime) {
+        if (requestTime != null && !requestTime.isEmpty()) {
+            return validateSignatureWithRequestTime(signature, terminalId, requestTime, receivedDateTime);
+        }
+        
+        if (!legacyToleranceEnabled) {
+            logger.warn("Request time missing and legacy tolerance disabled for terminal: {}", terminalId);
+            return false;
+        }
+        
+        return validateSignatureWithTolerance(signature, terminalId, receivedDateTime, legacyToleranceMinutes);
+    }
+    
+    /**
+     * Validates signature against the signing time supplied by the terminal
+     * @param signature The signature from the request header
+     * @param terminalId The terminal ID from the request body
+     * @param requestTime The signing time sent by the terminal (yyyy-MM-dd HH:mm:ss)
+     * @param receivedDateTime The datetime when the request was received
+     * @return true if the request time is within the allowed clock skew and the signature matches it
+     */
+    public boolean validateSignatureWithRequestTime(String signature, String terminalId,
+                                                    String requestTime, LocalDateTime receivedDateTime) {
+        SignatureValidationEvent event = new SignatureValidationEvent();
+        event.begin();
+        try {
+            long requestSecond = parseLocalSecond(requestTime);
+            if (requestSecond == Long.MIN_VALUE) {
+                logger.warn("Malformed request time '{}' for terminal: {}", requestTime, terminalId);
+                return validationResult(event, terminalId, false, 0);
+            }
+            
+            long skew = Math.abs(requestSecond - SignatureKeyCache.toLocalSecond(receivedDateTime));
+            if (skew > maxClockSkewSeconds) {
+                logger.warn("Request time {} outside allowed clock skew ({}s) for terminal: {}", 
+                           requestTime, skew, terminalId);
+                return validationResult(event, terminalId, false, 0);
+            }
+            
+            if (!decodeSignature(signature, terminalId)) {
+                return validationResult(event, terminalId, false, 0);
+            }
+            
+            boolean isValid = matchesAt(terminalId, requestSecond);
+            
+            if (isValid) {
+                logger.info("Signature validation successful for terminal: {}", terminalId);
+            } else {
+                logger.warn("Signature validation failed for terminal: {}", terminalId);
+            }
+            
+            return validationResult(event, terminalId, isValid, 1);
+            
+        } catch (Exception e) {
+            logger.error("Error validating signature for terminal: {}", terminalId, e);
+            validationError(event, terminalId);
+            return false;
+        }
     }
     
     /**
@@ -95,27 +187,144 @@ public class SignatureService {
      */
     public boolean validateSignatureWithTolerance(String signature, String terminalId, 
                                                  LocalDateTime requestDateTime, int toleranceMinutes) {
+        SignatureValidationEvent event = new SignatureValidationEvent();
+        event.begin();
+        try {
+            // The header is decoded once and reused for every candidate time
+            if (!decodeSignature(signature, terminalId)) {
+                return validationResult(event, terminalId, false, 0);
+            }
+            
+            long requestSecond = SignatureKeyCache.toLocalSecond(requestDateTime);
+            
+            // Try exact time first
+            if (matchesAt(terminalId, requestSecond)) {
+                logger.info("Signature validation successful for terminal: {}", terminalId);
+                return validationResult(event, terminalId, true, 1);
+            }
+            
+            // Try with tolerance
+            int attempts = 1;
+            for (int i = 1; i <= toleranceMinutes; i++) {
+                // Try past minutes
+                attempts++;
+                if (matchesAt(terminalId, requestSecond - i * 60L)) {
+                    logger.info("Signature valid with {} minutes tolerance (past) for terminal: {}", i, terminalId);
+                    return validationResult(event, terminalId, true, attempts);
+                }
+                
+                // Try future minutes
+                attempts++;
+                if (matchesAt(terminalId, requestSecond + i * 60L)) {
+                    logger.info("Signature valid with {} minutes tolerance (future) for terminal: {}", i, terminalId);
+                    return validationResult(event, terminalId, true, attempts);
+                }
+            }
+            
+            logger.warn("Signature validation failed for terminal: {}", terminalId);
+            return validationResult(event, terminalId, false, attempts);
+            
+        } catch (Exception e) {
+            logger.error("Error validating signature for terminal: {}", terminalId, e);
+            validationError(event, terminalId);
+            return false;
+        }
+    }
+    
+    /**
+     * Reports a finished signature check to the metrics and the flight recorder.
+     * @param attempts Candidate signing times tried, 0 when the request was rejected before any HMAC
+     */
+    private boolean validationResult(SignatureValidationEvent event, String terminalId, boolean valid, int attempts) {
+        if (attempts > 0) {
+            echoMetrics.recordToleranceAttempts(attempts, valid);
+        }
+        if (event.shouldCommit()) {
+            event.terminalId = terminalId;
+            event.outcome = valid ? EchoMetrics.VALID : EchoMetrics.INVALID;
+            event.attempts = attempts;
+            event.commit();
+        }
+        return valid;
+    }
+    
+    private void validationError(SignatureValidationEvent event, String terminalId) {
+        if (event.shouldCommit()) {
+            event.terminalId = terminalId;
+            event.outcome = "error";
+            event.commit();
+        }
+    }
+    
+    /**
+     * Matches the decoded signature against the key for a local epoch second,
+     * using the key cache when the second is inside the cached window.
+     */
+    private boolean matchesAt(String terminalId, long localSecond) {
+        HmacSignatureVerifier.KeyState key = keyCache != null ? keyCache.get(localSecond) : null;
+        if (key != null) {
+            return verifier.matches(terminalId, key);
+        }
+        return verifier.matches(terminalId, LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC));
+    }
+    
+    /**
+     * Parses a yyyy-MM-dd HH:mm:ss string into a local epoch second.
+     * @return the local epoch second, or Long.MIN_VALUE when the value is malformed
+     */
+    static long parseLocalSecond(String value) {
+        if (value.length() != HmacSignatureVerifier.DATE_TIME_LENGTH
+                || value.charAt(4) != '-' || value.charAt(7) != '-' || value.charAt(10) != ' '
+                || value.charAt(13) != ':' || value.charAt(16) != ':') {
+            return Long.MIN_VALUE;
+        }
         
-        // Try exact time first
-        if (validateSignature(signature, terminalId, requestDateTime)) {
-            return true;
+        int year = parseDigits(value, 0, 4);
+        int month = parseDigits(value, 5, 2);
+        int day = parseDigits(value, 8, 2);
+        int hour = parseDigits(value, 11, 2);
+        int minute = parseDigits(value, 14, 2);
+        int second = parseDigits(value, 17, 2);
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0) {
+            return Long.MIN_VALUE;
         }
         
-        // Try with tolerance
-        for (int i = 1; i <= toleranceMinutes; i++) {
-            // Try past minutes
-            if (validateSignature(signature, terminalId, requestDateTime.minusMinutes(i))) {
-                logger.info("Signature valid with {} minutes tolerance (past) for terminal: {}", i, terminalId);
-                return true;
-            }
-            
-            // Try future minutes
-            if (validateSignature(signature, terminalId, requestDateTime.plusMinutes(i))) {
-                logger.info("Signature valid with {} minutes tolerance (future) for terminal: {}", i, terminalId);
-                return true;
+        try {
+            return SignatureKeyCache.toLocalSecond(LocalDateTime.of(year, month, day, hour, minute, second));
+        } catch (DateTimeException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+    
+    private static int parseDigits(String value, int offset, int width) {
+        int result = 0;
+        for (int i = offset; i < offset + width; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
             }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+    
+    private boolean decodeSignature(String signature, String terminalId) {
+        if (signature == null || signature.trim().isEmpty()) {
+            logger.warn("Signature is null or empty");
+            return false;
+        }
+        
+        if (terminalId == null || terminalId.trim().isEmpty()) {
+            logger.warn("Terminal ID is null or empty");
+            return false;
+        }
+        
+        if (!verifier.decodeSignature(signature)) {
+            logger.warn("Malformed signature for terminal: {}", terminalId);
+            return false;
         }
         
-        return false;
+        logger.debug("Received signature: {}", signature);
+        return true;
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.example.edcmanagement.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for an echo signature check: one attempt against
+ * the terminal's request time, or the legacy tolerance search.
+ */
+@Name("com.example.edcmanagement.SignatureValidation")
+@Label("Signature Validation")
+@Description("A signature checked against the request time or the exact and tolerated signing times")
+@Category({ "EDC Management", "Echo" })
+@StackTrace(false)
+public class SignatureValidationEvent extends Event {
+
+    @Label("Terminal ID")
+    public String terminalId;
+
+    @Label("Outcome")
+    @Description("valid, invalid or error")
+    public String outcome;
+
+    @Label("Attempts")
+    @Description("Candidate signing times tried")
+    public int attempts;
+}
@@ -0,0 +1,54 @@
+package com.example.edcmanagement.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Append-only string dictionary with a fixed maximum size. Values the
+ * dictionary has no room for get code -1 and must be stored by the caller.
+ */
+final class StringDictionary {
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<String> values;
+
+    StringDictionary(int maxSize) {
+        this.values = new AtomicReferenceArray<>(maxSize);
+    }
+
+    /**
+     * @return the code of the value, or -1 when the dictionary is full
+     */
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (codes.size() >= values.length()) {
+            return -1;
+        }
+
+        synchronized (this) {
+            code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            int size = codes.size();
+            if (size >= values.length()) {
+                return -1;
+            }
+            // Publish the value before the code so decode never sees an empty slot
+            values.set(size, value);
+            codes.put(value, size);
+            return size;
+        }
+    }
+
+    String decode(int code) {
+        return values.get(code);
+    }
+
+    int size() {
+        return codes.size();
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.edcmanagement.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the in-process terminal caches of every node in step through
+ * PostgreSQL LISTEN/NOTIFY.
+ *
+ * Terminal writes publish a notification with {@code pg_notify} on the
+ * connection of the writing transaction, so it is only delivered if the write
+ * commits. Each node holds one dedicated connection outside the pool that
+ * listens on the channel and applies changes from other nodes to the entity
+ * cache, the terminal registry and the liveness monitor. Notifications sent
+ * while a node is disconnected are lost, so after reconnecting the node drops
+ * its caches and reloads the registry.
+ */
+@Component
+public class TerminalChangeBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(TerminalChangeBus.class);
+
+    private static final String CHANNEL = "terminal_changes";
+
+    private static final String NOTIFY_SQL = "SELECT pg_notify('" + CHANNEL + "', ?)";
+
+    // PostgreSQL rejects payloads of 8000 bytes or more
+    private static final int MAX_PAYLOAD_BYTES = 7000;
+
+    private static final String UPDATE = "UPDATE";
+    private static final String DELETE = "DELETE";
+    private static final String OFFLINE = "OFFLINE";
+    private static final String RESYNC = "RESYNC";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TerminalEntityCache terminalEntityCache;
+
+    @Autowired
+    private TerminalRegistry terminalRegistry;
+
+    @Autowired
+    private TerminalLivenessMonitor livenessMonitor;
+
+    @Value("${app.terminal.change-bus.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.terminal.change-bus.poll-timeout-ms:10000}")
+    private int pollTimeoutMillis;
+
+    @Value("${app.terminal.change-bus.reconnect-delay-ms:5000}")
+    private long reconnectDelayMillis;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final AtomicLong applied = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread listener;
+
+    // Ordered first so the channel is listened to before the caches load
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void start() {
+        if (!enabled) {
+            logger.info("Terminal change bus disabled, terminal caches are not shared between nodes");
+            return;
+        }
+
+        running = true;
+        try {
+            connect();
+        } catch (SQLException e) {
+            logger.warn("Could not listen for terminal changes, retrying in the background: {}", e.getMessage());
+        }
+
+        listener = new Thread(this::listen, "terminal-change-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        closeConnection();
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    /**
+     * Announces a created or updated terminal. Must be called inside the
+     * writing transaction.
+     * @param previousTerminalId The terminal ID before a rename, or null
+     */
+    public void publishUpdate(Long id, String previousTerminalId, String terminalId, String status) {
+        ObjectNode change = change(UPDATE);
+        change.put("id", id);
+        change.put("terminalId", terminalId);
+        change.put("status", status);
+        if (previousTerminalId != null && !previousTerminalId.equals(terminalId)) {
+            change.put("previousTerminalId", previousTerminalId);
+        }
+        send(change);
+    }
+
+    /**
+     * Announces a deleted terminal. Must be called inside the writing transaction.
+     */
+    public void publishDelete(Long id, String terminalId) {
+        ObjectNode change = change(DELETE);
+        change.put("id", id);
+        change.put("terminalId", terminalId);
+        send(change);
+    }
+
+    /**
+     * Announces terminals moved to OFFLINE, split over as many notifications
+     * as the payload limit needs.
+     */
+    public void publishOffline(List<Long> ids, List<String> terminalIds) {
+        ObjectNode change = null;
+        int payloadBytes = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            int entryBytes = terminalIds.get(i).getBytes(StandardCharsets.UTF_8).length + 32;
+            if (change != null && payloadBytes + entryBytes > MAX_PAYLOAD_BYTES) {
+                send(change);
+                change = null;
+            }
+            if (change == null) {
+                change = change(OFFLINE);
+                change.putArray("ids");
+                change.putArray("terminalIds");
+                payloadBytes = 128;
+            }
+            ((ArrayNode) change.get("ids")).add(ids.get(i));
+            ((ArrayNode) change.get("terminalIds")).add(terminalIds.get(i));
+            payloadBytes += entryBytes;
+        }
+        if (change != null) {
+            send(change);
+        }
+    }
+
+    /**
+     * Tells the other nodes to drop and reload their terminal caches, for
+     * writes too large to describe row by row.
+     */
+    public void publishResync() {
+        send(change(RESYNC));
+    }
+
+    private ObjectNode change(String operation) {
+        ObjectNode change = objectMapper.createObjectNode();
+        change.put("node", nodeId);
+        change.put("op", operation);
+        return change;
+    }
+
+    private void send(ObjectNode change) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.query(NOTIFY_SQL, (ResultSetExtractor<Void>) rs -> null, change.toString());
+    }
+
+    private void listen() {
+        boolean reconnected = false;
+        while (running) {
+            try {
+                if (connection == null) {
+                    connect();
+                    reconnected = true;
+                }
+                if (reconnected) {
+                    resync();
+                    reconnected = false;
+                }
+
+                PGNotification[] notifications = connection.unwrap(PGConnection.class)
+                    .getNotifications(pollTimeoutMillis);
+                if (notifications != null && notifications.length > 0) {
+                    for (PGNotification notification : notifications) {
+                        apply(notification.getParameter());
+                    }
+                } else if (!connection.isValid(pollTimeoutMillis / 1000 + 1)) {
+                    throw new SQLException("Listener connection is no longer valid");
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                logger.warn("Lost terminal change listener connection, reconnecting in {} ms: {}",
+                           reconnectDelayMillis, e.getMessage());
+                closeConnection();
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        logger.info("Terminal change listener stopped after applying {} remote changes", applied.get());
+    }
+
+    // A connection of its own: a pooled one would carry the LISTEN back into the pool
+    private void connect() throws SQLException {
+        Connection listenConnection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+            dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        try (Statement statement = listenConnection.createStatement()) {
+            statement.execute("LISTEN " + CHANNEL);
+        } catch (SQLException e) {
+            listenConnection.close();
+            throw e;
+        }
+        connection = listenConnection;
+        logger.info("Listening for terminal changes on channel {}", CHANNEL);
+    }
+
+    private void closeConnection() {
+        Connection current = connection;
+        connection = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException e) {
+                logger.debug("Failed to close terminal change listener connection", e);
+            }
+        }
+    }
+
+    private void apply(String payload) {
+        JsonNode change;
+        try {
+            change = objectMapper.readTree(payload);
+        } catch (Exception e) {
+            logger.warn("Ignoring unreadable terminal change notification: {}", payload);
+            return;
+        }
+        if (nodeId.equals(change.path("node").asText())) {
+            // Already applied locally after the commit
+            return;
+        }
+
+        String operation = change.path("op").asText();
+        switch (operation) {
+            case UPDATE:
+                applyUpdate(change);
+                break;
+            case DELETE:
+                terminalEntityCache.evictStatusChanged(change.path("id").asLong());
+                terminalRegistry.unregister(change.path("terminalId").asText());
+                livenessMonitor.untrack(change.path("terminalId").asText());
+                break;
+            case OFFLINE:
+                applyOffline(change);
+                break;
+            case RESYNC:
+                resync();
+                break;
+            default:
+                logger.warn("Ignoring terminal change with unknown operation {}", operation);
+                return;
+        }
+        applied.incrementAndGet();
+        logger.debug("Applied remote terminal change {}", payload);
+    }
+
+    private void applyUpdate(JsonNode change) {
+        String terminalId = change.path("terminalId").asText();
+        String status = change.path("status").asText();
+
+        terminalEntityCache.evictStatusChanged(change.path("id").asLong());
+        if (change.hasNonNull("previousTerminalId")) {
+            String previousTerminalId = change.path("previousTerminalId").asText();
+            // The natural-id cache still maps the old terminal ID to this row
+            terminalEntityCache.evictNaturalIds();
+            terminalRegistry.unregister(previousTerminalId);
+            livenessMonitor.untrack(previousTerminalId);
+        }
+
+        terminalRegistry.register(terminalId, status);
+        if ("ACTIVE".equals(status)) {
+            livenessMonitor.track(terminalId, null);
+        } else {
+            livenessMonitor.untrack(terminalId);
+        }
+    }
+
+    private void applyOffline(JsonNode change) {
+        JsonNode ids = change.path("ids");
+        JsonNode terminalIds = change.path("terminalIds");
+        List<Long> evicted = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            evicted.add(ids.get(i).asLong());
+            String terminalId = terminalIds.get(i).asText();
+            if (terminalRegistry.isLoaded()) {
+                terminalRegistry.register(terminalId, "OFFLINE");
+            }
+            livenessMonitor.untrack(terminalId);
+        }
+        terminalEntityCache.evictStatusChanged(evicted);
+    }
+
+    private void resync() {
+        long start = System.currentTimeMillis();
+        terminalEntityCache.evictAll();
+        if (terminalRegistry.isLoaded()) {
+            terminalRegistry.reload();
+        }
+        livenessMonitor.reload();
+        logger.info("Resynchronised terminal caches in {} ms", System.currentTimeMillis() - start);
+    }
+}
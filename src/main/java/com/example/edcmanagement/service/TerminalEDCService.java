@@ -1,18 +1,36 @@
 package com.example.edcmanagement.service;
 
+import com.example.edcmanagement.dto.CursorPage;
+import com.example.edcmanagement.dto.TerminalCacheStatsDto;
+import com.example.edcmanagement.dto.TerminalEDCDto;
+import com.example.edcmanagement.dto.TerminalLivenessStatsDto;
+import com.example.edcmanagement.dto.TerminalOfflineEventDto;
+import com.example.edcmanagement.dto.TerminalRegistryStatsDto;
 import com.example.edcmanagement.entity.TerminalEDC;
 import com.example.edcmanagement.repository.TerminalEDCRepository;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -23,6 +41,33 @@ public class TerminalEDCService {
     @Autowired
     private TerminalEDCRepository terminalRepository;
     
+    @Autowired
+    private TerminalPingBuffer terminalPingBuffer;
+    
+    @Autowired
+    private TerminalRegistry terminalRegistry;
+    
+    @Autowired
+    private TerminalLivenessMonitor livenessMonitor;
+    
+    @Autowired
+    private TerminalSearchService terminalSearchService;
+    
+    @Autowired
+    private TerminalEntityCache terminalEntityCache;
+    
+    @Autowired
+    private TerminalChangeBus changeBus;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${app.terminal.registry.verify-misses:true}")
+    private boolean verifyRegistryMisses;
+    
+    @Value("${app.terminal.last-ping.coalesce.enabled:true}")
+    private boolean coalesceLastPing;
+    
     public TerminalEDC createTerminal(TerminalEDC terminal) {
         logger.info("Creating new terminal with ID: {}", terminal.getTerminalId());
         
@@ -33,6 +78,17 @@ public class TerminalEDCService {
         terminal.setCreatedAt(LocalDateTime.now());
         TerminalEDC savedTerminal = terminalRepository.save(terminal);
         
+        String terminalId = savedTerminal.getTerminalId();
+        String status = savedTerminal.getStatus();
+        LocalDateTime lastPing = savedTerminal.getLastPing();
+        changeBus.publishUpdate(savedTerminal.getId(), null, terminalId, status);
+        afterCommit(() -> {
+            terminalRegistry.register(terminalId, status);
+            if ("ACTIVE".equals(status)) {
+                livenessMonitor.track(terminalId, lastPing);
+            }
+        });
+        
         logger.info("Terminal created successfully with ID: {}", savedTerminal.getTerminalId());
         return savedTerminal;
     }
@@ -44,9 +100,28 @@ public class TerminalEDCService {
     }
 
     @Transactional(readOnly = true)
-    public Page<TerminalEDC> getAllTerminals(Pageable pageable) {
+    public Page<TerminalEDCDto> getAllTerminals(Pageable pageable) {
         logger.debug("Retrieving terminals with pagination");
-        return terminalRepository.findAll(pageable);
+        return terminalRepository.findAllDtos(pageable);
+    }
+    
+    /**
+     * Keyset page of terminals by descending ID; no count query is run.
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TerminalEDCDto> getTerminalPage(String cursor, int size) {
+        logger.debug("Retrieving terminal page after cursor {}", cursor);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<TerminalEDCDto> terminals = cursor == null
+            ? terminalRepository.findFirstPage(limit)
+            : terminalRepository.findPageBefore(PageCursor.decodeId(cursor), limit);
+        
+        if (terminals.size() <= size) {
+            return new CursorPage<>(terminals, null);
+        }
+        List<TerminalEDCDto> items = terminals.subList(0, size);
+        return new CursorPage<>(items, PageCursor.encode(items.get(size - 1).getId()));
     }
     
     @Transactional(readOnly = true)
@@ -58,7 +133,7 @@ public class TerminalEDCService {
     @Transactional(readOnly = true)
     public Optional<TerminalEDC> getTerminalByTerminalId(String terminalId) {
         logger.debug("Retrieving terminal by terminal ID: {}", terminalId);
-        return terminalRepository.findByTerminalId(terminalId);
+        return findByNaturalId(terminalId);
     }
     
     public TerminalEDC updateTerminal(Long id, TerminalEDC terminalDetails) {
@@ -67,6 +142,8 @@ public class TerminalEDCService {
         TerminalEDC terminal = terminalRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Terminal not found with ID: " + id));
         
+        String previousTerminalId = terminal.getTerminalId();
+        
         if (!terminal.getTerminalId().equals(terminalDetails.getTerminalId())) {
             if (terminalRepository.existsByTerminalId(terminalDetails.getTerminalId())) {
                 throw new RuntimeException("Terminal with ID " + terminalDetails.getTerminalId() + " already exists");
@@ -84,6 +161,23 @@ public class TerminalEDCService {
         TerminalEDC updatedTerminal = terminalRepository.save(terminal);
         logger.info("Terminal updated successfully with ID: {}", updatedTerminal.getTerminalId());
         
+        String terminalId = updatedTerminal.getTerminalId();
+        String status = updatedTerminal.getStatus();
+        LocalDateTime lastPing = updatedTerminal.getLastPing();
+        changeBus.publishUpdate(updatedTerminal.getId(), previousTerminalId, terminalId, status);
+        afterCommit(() -> {
+            if (!previousTerminalId.equals(terminalId)) {
+                terminalRegistry.unregister(previousTerminalId);
+                livenessMonitor.untrack(previousTerminalId);
+            }
+            terminalRegistry.register(terminalId, status);
+            if ("ACTIVE".equals(status)) {
+                livenessMonitor.track(terminalId, lastPing);
+            } else {
+                livenessMonitor.untrack(terminalId);
+            }
+        });
+        
         return updatedTerminal;
     }
     
@@ -95,39 +189,179 @@ public class TerminalEDCService {
         
         terminalRepository.delete(terminal);
         logger.info("Terminal deleted successfully with ID: {}", terminal.getTerminalId());
+        
+        String terminalId = terminal.getTerminalId();
+        changeBus.publishDelete(terminal.getId(), terminalId);
+        afterCommit(() -> {
+            terminalRegistry.unregister(terminalId);
+            livenessMonitor.untrack(terminalId);
+        });
     }
     
     @Transactional(readOnly = true)
-    public List<TerminalEDC> getTerminalsByStatus(String status) {
+    public List<TerminalEDCDto> getTerminalsByStatus(String status) {
         logger.debug("Retrieving terminals by status: {}", status);
-        return terminalRepository.findByStatus(status);
+        return terminalRepository.findDtosByStatus(status);
     }
     
     @Transactional(readOnly = true)
-    public List<TerminalEDC> searchTerminalsByLocation(String location) {
+    public List<TerminalEDCDto> searchTerminalsByLocation(String location) {
         logger.debug("Searching terminals by location: {}", location);
-        return terminalRepository.findByLocationContainingIgnoreCase(location);
+        return terminalSearchService.searchByLocation(location);
+    }
+    
+    /**
+     * Ranked page of terminals whose location or merchant name contains the text.
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TerminalEDCDto> searchTerminals(String text, String cursor, int size) {
+        logger.debug("Searching terminals for: {}", text);
+        return terminalSearchService.search(text, cursor, size);
     }
 
+    // No surrounding transaction: the coalesced path never touches the database here
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void updateLastPing(String terminalId) {
         logger.debug("Updating last ping for terminal: {}", terminalId);
         
+        LastPingUpdateEvent event = new LastPingUpdateEvent();
+        event.begin();
+        String outcome = "error";
+        try {
+            outcome = applyPing(terminalId);
+        } finally {
+            if (event.shouldCommit()) {
+                event.terminalId = terminalId;
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * @return buffered, updated or not_found
+     */
+    private String applyPing(String terminalId) {
+        if (coalesceLastPing) {
+            // Written in bulk by TerminalPingBuffer, which also sets the status to ACTIVE
+            terminalPingBuffer.recordPing(terminalId, LocalDateTime.now());
+            livenessMonitor.recordHeartbeat(terminalId);
+            if (terminalRegistry.isLoaded() && !"ACTIVE".equals(terminalRegistry.getStatus(terminalId))) {
+                terminalRegistry.register(terminalId, "ACTIVE");
+            }
+            return "buffered";
+        }
+        
         Optional<TerminalEDC> terminalOpt = terminalRepository.findByTerminalId(terminalId);
         if (terminalOpt.isPresent()) {
             TerminalEDC terminal = terminalOpt.get();
             terminal.setLastPing(LocalDateTime.now());
             terminal.setStatus("ACTIVE");
             terminalRepository.save(terminal);
+            livenessMonitor.recordHeartbeat(terminalId);
             
             logger.debug("Last ping updated for terminal: {}", terminalId);
-        } else {
-            logger.warn("Terminal not found for ping update: {}", terminalId);
+            return "updated";
         }
+        
+        logger.warn("Terminal not found for ping update: {}", terminalId);
+        return "not_found";
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Checks whether a terminal exists, answering from the terminal registry
+     * once it is loaded. Registry misses are confirmed against the database
+     * (and registered) so terminals created on another node are not rejected.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean existsByTerminalId(String terminalId) {
-        return terminalRepository.existsByTerminalId(terminalId);
+        if (!terminalRegistry.isLoaded()) {
+            return terminalRepository.existsByTerminalId(terminalId);
+        }
+        
+        if (terminalRegistry.contains(terminalId)) {
+            return true;
+        }
+        
+        if (!verifyRegistryMisses) {
+            return false;
+        }
+        
+        Optional<TerminalEDC> terminal = terminalRepository.findByTerminalId(terminalId);
+        terminal.ifPresent(t -> terminalRegistry.register(t.getTerminalId(), t.getStatus()));
+        return terminal.isPresent();
+    }
+    
+    /**
+     * Resolves which of the given terminal IDs exist, using the registry and a
+     * single set-based query for everything the registry cannot answer.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Set<String> findExistingTerminalIds(Collection<String> terminalIds) {
+        Set<String> existing = new HashSet<>();
+        List<String> unresolved = new ArrayList<>();
+        boolean registryLoaded = terminalRegistry.isLoaded();
+        
+        for (String terminalId : terminalIds) {
+            if (registryLoaded && terminalRegistry.contains(terminalId)) {
+                existing.add(terminalId);
+            } else {
+                unresolved.add(terminalId);
+            }
+        }
+        
+        if (!unresolved.isEmpty() && (!registryLoaded || verifyRegistryMisses)) {
+            existing.addAll(terminalRepository.findTerminalIdsIn(unresolved));
+        }
+        
+        return existing;
+    }
+    
+    /**
+     * Updates the last ping of several terminals in one bulk statement (or one
+     * coalesced flush when last-ping coalescing is enabled).
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void updateLastPings(Collection<String> terminalIds) {
+        logger.debug("Updating last ping for {} terminals", terminalIds.size());
+        LocalDateTime now = LocalDateTime.now();
+        
+        for (String terminalId : terminalIds) {
+            livenessMonitor.recordHeartbeat(terminalId);
+        }
+        
+        if (!coalesceLastPing) {
+            terminalPingBuffer.writeNow(terminalIds, now);
+            return;
+        }
+        
+        for (String terminalId : terminalIds) {
+            terminalPingBuffer.recordPing(terminalId, now);
+            if (terminalRegistry.isLoaded() && !"ACTIVE".equals(terminalRegistry.getStatus(terminalId))) {
+                terminalRegistry.register(terminalId, "ACTIVE");
+            }
+        }
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TerminalRegistryStatsDto getRegistryStats() {
+        return terminalRegistry.getStats();
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<TerminalOfflineEventDto> getOfflineEvents(LocalDateTime since) {
+        return livenessMonitor.getRecentOfflineEvents(since);
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TerminalLivenessStatsDto getLivenessStats() {
+        return livenessMonitor.getStats();
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TerminalCacheStatsDto getCacheStats() {
+        return terminalEntityCache.getStats();
     }
 
     @Transactional(readOnly = true)
@@ -135,4 +369,25 @@ public class TerminalEDCService {
         logger.debug("Retrieving terminals by status with pagination: {}", status);
         return terminalRepository.findByStatusOrderByCreatedAtDesc(status, pageable);
     }
+
+    // Resolved through the natural-id and entity caches before touching the database
+    private Optional<TerminalEDC> findByNaturalId(String terminalId) {
+        return entityManager.unwrap(Session.class)
+            .bySimpleNaturalId(TerminalEDC.class)
+            .loadOptional(terminalId);
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 }
\ No newline at end of file
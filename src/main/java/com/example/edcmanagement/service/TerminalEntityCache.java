@@ -0,0 +1,118 @@
+package com.example.edcmanagement.service;
+
+import com.example.edcmanagement.dto.TerminalCacheStatsDto;
+import com.example.edcmanagement.entity.TerminalEDC;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Invalidation and statistics for the TerminalEDC second-level cache.
+ *
+ * Writes made through Hibernate keep the cache current on their own. The
+ * set-based JDBC writes (coalesced pings, the single-statement echo, offline
+ * transitions and bulk import) bypass Hibernate, so they evict the rows they
+ * changed here. The cached status queries are only evicted when a write
+ * changes a status: a ping that leaves the terminal ACTIVE keeps them, and
+ * the last_ping they show may then lag by up to
+ * {@code app.terminal.cache.query-ttl-seconds}.
+ */
+@Component
+public class TerminalEntityCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TerminalEntityCache.class);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SessionFactory sessionFactory;
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Evicts the given terminals (by primary key) after a write that left
+     * their status unchanged.
+     */
+    public void evict(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        Cache cache = sessionFactory.getCache();
+        for (Long id : ids) {
+            cache.evictEntityData(TerminalEDC.class, id);
+        }
+        evictions.addAndGet(ids.size());
+    }
+
+    public void evict(Long id) {
+        if (id != null) {
+            evict(Collections.singletonList(id));
+        }
+    }
+
+    /**
+     * Evicts the given terminals and the cached terminal queries after a
+     * write that changed, added or removed a status.
+     */
+    public void evictStatusChanged(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        evict(ids);
+        sessionFactory.getCache().evictDefaultQueryRegion();
+    }
+
+    public void evictStatusChanged(Long id) {
+        if (id != null) {
+            evictStatusChanged(Collections.singletonList(id));
+        }
+    }
+
+    /**
+     * Evicts every cached terminal ID to primary key mapping, for renames
+     * made on another node.
+     */
+    public void evictNaturalIds() {
+        sessionFactory.getCache().evictNaturalIdData(TerminalEDC.class);
+    }
+
+    /**
+     * Evicts every cached terminal, natural ID and terminal query.
+     */
+    public void evictAll() {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(TerminalEDC.class);
+        cache.evictNaturalIdData(TerminalEDC.class);
+        cache.evictDefaultQueryRegion();
+        evictions.incrementAndGet();
+        logger.debug("Evicted all cached terminals");
+    }
+
+    public TerminalCacheStatsDto getStats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        CacheRegionStatistics entity = statistics.getDomainDataRegionStatistics(TerminalEDC.CACHE_REGION);
+        return new TerminalCacheStatsDto(statistics.isStatisticsEnabled(),
+            entity.getHitCount(), entity.getMissCount(), entity.getPutCount(),
+            statistics.getNaturalIdCacheHitCount(), statistics.getNaturalIdCacheMissCount(),
+            statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+            evictions.get());
+    }
+}
@@ -0,0 +1,378 @@
+package com.example.edcmanagement.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Compact open-addressing hash table from terminal ID to status.
+ *
+ * Terminal IDs are stored back to back as UTF-8 in a single byte arena
+ * ({@code [length:2][bytes]}), slots are three parallel primitive arrays and
+ * statuses are dictionary encoded into one byte, so an entry costs roughly
+ * its ID length plus ~20 bytes instead of a String, a map node and a boxed
+ * status. Lookups use an optimistic {@link StampedLock} read and do not
+ * allocate for ASCII IDs; writes take the write lock.
+ */
+final class TerminalIdTable {
+
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+    private static final int MAX_STATUSES = 127;
+
+    private final StampedLock lock = new StampedLock();
+
+    // Arena offset + 1 per slot, EMPTY or DELETED
+    private int[] offsets;
+    private int[] hashes;
+    private byte[] statuses;
+    private byte[] arena;
+    private int arenaSize;
+    private int deletedBytes;
+    private int size;
+    private int used;
+
+    private volatile String[] statusNames = new String[0];
+    private final Map<String, Byte> statusCodes = new HashMap<>();
+
+    TerminalIdTable(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity * 2 - 1)) << 1;
+        this.offsets = new int[capacity];
+        this.hashes = new int[capacity];
+        this.statuses = new byte[capacity];
+        this.arena = new byte[Math.max(1024, initialCapacity * 12)];
+    }
+
+    /**
+     * @return the status of the terminal, or null when the ID is not present
+     */
+    String getStatus(String terminalId) {
+        byte[] encoded = isAscii(terminalId) ? null : terminalId.getBytes(StandardCharsets.UTF_8);
+
+        long stamp = lock.tryOptimisticRead();
+        int code = -1;
+        try {
+            code = readStatusCode(terminalId, encoded);
+        } catch (RuntimeException e) {
+            // Torn read during a concurrent resize; retried under the read lock below
+            stamp = 0L;
+        }
+
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                code = readStatusCode(terminalId, encoded);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        return code >= 0 ? statusNames[code] : null;
+    }
+
+    /**
+     * Inserts a terminal or updates its status.
+     * @return true if the terminal was not present before
+     */
+    boolean put(String terminalId, String status) {
+        byte[] encoded = terminalId.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(encoded);
+
+        long stamp = lock.writeLock();
+        try {
+            byte code = statusCode(status);
+            int slot = findSlot(offsets, hashes, arena, hash, null, encoded);
+            if (slot >= 0) {
+                statuses[slot] = code;
+                return false;
+            }
+
+            if ((used + 1) * 2 > offsets.length) {
+                rehash(size + 1 > offsets.length / 4 ? offsets.length * 2 : offsets.length);
+            }
+
+            // Appending may compact the arena (and rebuild the slots), so probe afterwards
+            int offset = append(encoded);
+            int insertAt = insertionSlot(hash);
+            if (offsets[insertAt] == EMPTY) {
+                used++;
+            }
+            offsets[insertAt] = offset + 1;
+            hashes[insertAt] = hash;
+            statuses[insertAt] = code;
+            size++;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return true if the terminal was present
+     */
+    boolean remove(String terminalId) {
+        byte[] encoded = terminalId.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(encoded);
+
+        long stamp = lock.writeLock();
+        try {
+            int slot = findSlot(offsets, hashes, arena, hash, null, encoded);
+            if (slot < 0) {
+                return false;
+            }
+
+            int offset = offsets[slot] - 1;
+            deletedBytes += 2 + entryLength(arena, offset);
+            offsets[slot] = DELETED;
+            size--;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void clear() {
+        long stamp = lock.writeLock();
+        try {
+            Arrays.fill(offsets, EMPTY);
+            arenaSize = 0;
+            deletedBytes = 0;
+            size = 0;
+            used = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Visits every entry under the read lock.
+     */
+    void forEach(BiConsumer<String, String> consumer) {
+        long stamp = lock.readLock();
+        try {
+            String[] names = statusNames;
+            for (int slot = 0; slot < offsets.length; slot++) {
+                if (offsets[slot] > 0) {
+                    int offset = offsets[slot] - 1;
+                    int length = entryLength(arena, offset);
+                    consumer.accept(new String(arena, offset + 2, length, StandardCharsets.UTF_8), names[statuses[slot]]);
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    int capacity() {
+        long stamp = lock.readLock();
+        try {
+            return offsets.length;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return approximate heap footprint of the table arrays in bytes
+     */
+    long memoryBytes() {
+        long stamp = lock.readLock();
+        try {
+            return (long) offsets.length * (4 + 4 + 1) + arena.length;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int readStatusCode(String terminalId, byte[] encoded) {
+        // Read every array once so a concurrent rehash cannot mix generations
+        int[] currentOffsets = offsets;
+        int[] currentHashes = hashes;
+        byte[] currentStatuses = statuses;
+        byte[] currentArena = arena;
+
+        int hash = encoded != null ? hash(encoded) : hashAscii(terminalId);
+        int slot = findSlot(currentOffsets, currentHashes, currentArena, hash, encoded != null ? null : terminalId, encoded);
+        return slot >= 0 ? currentStatuses[slot] : -1;
+    }
+
+    private static int findSlot(int[] offsets, int[] hashes, byte[] arena, int hash,
+                                String asciiKey, byte[] encodedKey) {
+        int mask = offsets.length - 1;
+        int slot = hash & mask;
+
+        for (int probes = 0; probes < offsets.length; probes++) {
+            int value = offsets[slot];
+            if (value == EMPTY) {
+                return -1;
+            }
+            if (value > 0 && hashes[slot] == hash) {
+                int offset = value - 1;
+                boolean equal = asciiKey != null
+                    ? equalsAscii(arena, offset, asciiKey)
+                    : equalsBytes(arena, offset, encodedKey);
+                if (equal) {
+                    return slot;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int insertionSlot(int hash) {
+        int mask = offsets.length - 1;
+        int slot = hash & mask;
+        while (offsets[slot] > 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int append(byte[] encoded) {
+        int needed = 2 + encoded.length;
+        if (arenaSize + needed > arena.length) {
+            if (deletedBytes > arena.length / 2) {
+                // Mostly garbage: compact in place of growing
+                rehash(offsets.length);
+            }
+            if (arenaSize + needed > arena.length) {
+                arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + needed));
+            }
+        }
+
+        int offset = arenaSize;
+        arena[offset] = (byte) (encoded.length >>> 8);
+        arena[offset + 1] = (byte) encoded.length;
+        System.arraycopy(encoded, 0, arena, offset + 2, encoded.length);
+        arenaSize += needed;
+        return offset;
+    }
+
+    /**
+     * Rebuilds the slots and compacts the arena. New arrays are built aside
+     * and published at the end so optimistic readers see either generation.
+     */
+    private void rehash(int newCapacity) {
+        int[] newOffsets = new int[newCapacity];
+        int[] newHashes = new int[newCapacity];
+        byte[] newStatuses = new byte[newCapacity];
+        byte[] newArena = new byte[Math.max(1024, arenaSize - deletedBytes + arenaSize / 2)];
+        int newArenaSize = 0;
+        int mask = newCapacity - 1;
+
+        for (int slot = 0; slot < offsets.length; slot++) {
+            if (offsets[slot] <= 0) {
+                continue;
+            }
+
+            int offset = offsets[slot] - 1;
+            int entryBytes = 2 + entryLength(arena, offset);
+            System.arraycopy(arena, offset, newArena, newArenaSize, entryBytes);
+
+            int target = hashes[slot] & mask;
+            while (newOffsets[target] != EMPTY) {
+                target = (target + 1) & mask;
+            }
+            newOffsets[target] = newArenaSize + 1;
+            newHashes[target] = hashes[slot];
+            newStatuses[target] = statuses[slot];
+            newArenaSize += entryBytes;
+        }
+
+        arena = newArena;
+        hashes = newHashes;
+        statuses = newStatuses;
+        offsets = newOffsets;
+        arenaSize = newArenaSize;
+        deletedBytes = 0;
+        used = size;
+    }
+
+    private byte statusCode(String status) {
+        Byte code = statusCodes.get(status);
+        if (code != null) {
+            return code;
+        }
+        if (statusCodes.size() >= MAX_STATUSES) {
+            throw new IllegalStateException("Too many distinct terminal statuses");
+        }
+
+        byte newCode = (byte) statusCodes.size();
+        statusCodes.put(status, newCode);
+        String[] names = Arrays.copyOf(statusNames, newCode + 1);
+        names[newCode] = status;
+        statusNames = names;
+        return newCode;
+    }
+
+    private static int entryLength(byte[] arena, int offset) {
+        return ((arena[offset] & 0xff) << 8) | (arena[offset + 1] & 0xff);
+    }
+
+    private static boolean equalsAscii(byte[] arena, int offset, String key) {
+        int length = entryLength(arena, offset);
+        if (length != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (arena[offset + 2 + i] != (byte) key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equalsBytes(byte[] arena, int offset, byte[] key) {
+        int length = entryLength(arena, offset);
+        if (length != key.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (arena[offset + 2 + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a; hashAscii(s) == hash(s.getBytes(UTF_8)) for ASCII strings
+    static int hashAscii(String value) {
+        int h = 0x811c9dc5;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    static int hash(byte[] value) {
+        int h = 0x811c9dc5;
+        for (byte b : value) {
+            h ^= (b & 0xff);
+            h *= 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+}
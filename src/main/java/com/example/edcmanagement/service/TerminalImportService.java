@@ -0,0 +1,423 @@
+package com.example.edcmanagement.service;
+
+import com.example.edcmanagement.dto.TerminalEDCRequest;
+import com.example.edcmanagement.dto.TerminalImportErrorDto;
+import com.example.edcmanagement.dto.TerminalImportResultDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk terminal import from CSV or NDJSON.
+ *
+ * The input is read one line at a time and every row is validated like a
+ * single create request. Valid rows are upserted on terminal_id with one
+ * set-based statement per batch, which returns the rows it inserted or
+ * changed; rows identical to the stored terminal are skipped and reported
+ * as unchanged. A batch the database rejects is retried row by row so only
+ * the offending rows fail. Memory use depends on the batch size and the
+ * number of reported errors, not on the input.
+ */
+@Service
+public class TerminalImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TerminalImportService.class);
+
+    public static final String CSV = "csv";
+    public static final String NDJSON = "ndjson";
+
+    // Only rows that differ from the stored terminal are updated
+    private static final String UPSERT_ON_CONFLICT =
+        "ON CONFLICT (terminal_id) DO UPDATE SET location = EXCLUDED.location, status = EXCLUDED.status, " +
+        "    merchant_name = EXCLUDED.merchant_name, ip_address = EXCLUDED.ip_address, port = EXCLUDED.port, " +
+        "    updated_at = EXCLUDED.created_at " +
+        "WHERE (terminal_edc.location, terminal_edc.status, terminal_edc.merchant_name, " +
+        "       terminal_edc.ip_address, terminal_edc.port) " +
+        "  IS DISTINCT FROM (EXCLUDED.location, EXCLUDED.status, EXCLUDED.merchant_name, " +
+        "       EXCLUDED.ip_address, EXCLUDED.port) ";
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO terminal_edc (terminal_id, location, status, merchant_name, ip_address, port, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?) " + UPSERT_ON_CONFLICT;
+
+    // A batched INSERT only reports SUCCESS_NO_INFO per row with reWriteBatchedInserts, so the
+    // batch is one statement over arrays and RETURNING tells which rows were inserted or changed
+    private static final String BATCH_UPSERT_SQL =
+        "INSERT INTO terminal_edc (terminal_id, location, status, merchant_name, ip_address, port, created_at) " +
+        "SELECT v.*, CAST(? AS timestamp) " +
+        "FROM unnest(?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::int[]) " +
+        "    AS v (terminal_id, location, status, merchant_name, ip_address, port) " +
+        UPSERT_ON_CONFLICT + "RETURNING terminal_id";
+
+    // CSV header names (lower case, without separators) to TerminalEDCRequest fields
+    private static final Map<String, String> CSV_COLUMNS = new HashMap<>();
+    static {
+        CSV_COLUMNS.put("terminalid", "terminalId");
+        CSV_COLUMNS.put("location", "location");
+        CSV_COLUMNS.put("status", "status");
+        CSV_COLUMNS.put("merchantname", "merchantName");
+        CSV_COLUMNS.put("ipaddress", "ipAddress");
+        CSV_COLUMNS.put("port", "port");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private TerminalRegistry terminalRegistry;
+
+    @Autowired
+    private TerminalLivenessMonitor livenessMonitor;
+
+    @Autowired
+    private TerminalEntityCache terminalEntityCache;
+
+    @Autowired
+    private TerminalChangeBus changeBus;
+
+    @Value("${app.terminal.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.terminal.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    /**
+     * Checks the format up front, before the request body is read.
+     * @throws IllegalArgumentException if the format is not csv or ndjson
+     */
+    public void validateFormat(String format) {
+        if (!CSV.equals(format) && !NDJSON.equals(format)) {
+            throw new IllegalArgumentException("Format must be csv or ndjson");
+        }
+    }
+
+    /**
+     * Imports every row of the input, inserting new terminals and updating
+     * existing ones with the same terminal ID.
+     * @throws IllegalArgumentException if the format is invalid or a CSV header is missing or unusable
+     */
+    public TerminalImportResultDto importTerminals(InputStream input, String format) throws IOException {
+        validateFormat(format);
+
+        long start = System.currentTimeMillis();
+        ImportRun run = new ImportRun();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        try {
+            readRows(reader, format, run);
+        } finally {
+            if (run.upserted > 0) {
+                // One reload on the other nodes instead of one notification per row
+                announceImport();
+            }
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        logger.info("Imported {} of {} terminal rows ({} unchanged, {} failed) in {} ms",
+                   run.upserted, run.totalRows, run.unchanged, run.failed, elapsed);
+        return new TerminalImportResultDto(run.totalRows, run.upserted, run.unchanged, run.failed, elapsed,
+            run.errors, run.failed > run.errors.size());
+    }
+
+    private void readRows(BufferedReader reader, String format, ImportRun run) throws IOException {
+        String[] header = null;
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+
+            if (CSV.equals(format) && header == null) {
+                header = readHeader(line);
+                continue;
+            }
+
+            run.totalRows++;
+            TerminalEDCRequest row;
+            try {
+                row = CSV.equals(format)
+                    ? parseCsvRow(line, header)
+                    : objectMapper.readValue(line, TerminalEDCRequest.class);
+            } catch (Exception e) {
+                run.fail(lineNumber, null, "Unreadable row: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                continue;
+            }
+
+            String error = row != null ? validate(row) : "Row is empty";
+            if (error != null) {
+                run.fail(lineNumber, row != null ? row.getTerminalId() : null, error);
+                continue;
+            }
+
+            // One upsert statement cannot touch the same terminal twice
+            if (run.batch.containsKey(row.getTerminalId())) {
+                writeBatch(run);
+            }
+            run.batch.put(row.getTerminalId(), new BatchRow(lineNumber, row));
+            if (run.batch.size() >= batchSize) {
+                writeBatch(run);
+            }
+        }
+
+        if (!run.batch.isEmpty()) {
+            writeBatch(run);
+        }
+    }
+
+    private void announceImport() {
+        try {
+            changeBus.publishResync();
+        } catch (Exception e) {
+            logger.warn("Failed to announce terminal import to other nodes: {}", e.getMessage());
+        }
+    }
+
+    private void writeBatch(ImportRun run) {
+        List<BatchRow> rows = new ArrayList<>(run.batch.values());
+        run.batch.clear();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        long upsertedBefore = run.upserted;
+        try {
+            writeRows(run, rows, now);
+        } finally {
+            // Upserts bypass Hibernate and do not return ids
+            if (run.upserted > upsertedBefore) {
+                terminalEntityCache.evictAll();
+            }
+        }
+    }
+
+    private void writeRows(ImportRun run, List<BatchRow> rows, Timestamp now) {
+        try {
+            List<String> changed = jdbcTemplate.query(BATCH_UPSERT_SQL, ps -> bindBatch(ps, rows, now),
+                (rs, rowNum) -> rs.getString(1));
+            run.upserted += changed.size();
+            run.unchanged += rows.size() - changed.size();
+            for (BatchRow row : rows) {
+                imported(row.request);
+            }
+        } catch (Exception e) {
+            logger.debug("Terminal import batch of {} rows failed, retrying row by row", rows.size(), e);
+            for (BatchRow row : rows) {
+                try {
+                    if (jdbcTemplate.update(UPSERT_SQL, ps -> bind(ps, row.request, now)) > 0) {
+                        run.upserted++;
+                    } else {
+                        run.unchanged++;
+                    }
+                    imported(row.request);
+                } catch (Exception rowError) {
+                    run.fail(row.line, row.request.getTerminalId(),
+                        NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+    }
+
+    private void imported(TerminalEDCRequest request) {
+        terminalRegistry.register(request.getTerminalId(), request.getStatus());
+        if ("ACTIVE".equals(request.getStatus())) {
+            livenessMonitor.track(request.getTerminalId(), null);
+        } else {
+            livenessMonitor.untrack(request.getTerminalId());
+        }
+    }
+
+    private static void bindBatch(PreparedStatement ps, List<BatchRow> rows, Timestamp now) throws SQLException {
+        String[] terminalIds = new String[rows.size()];
+        String[] locations = new String[rows.size()];
+        String[] statuses = new String[rows.size()];
+        String[] merchantNames = new String[rows.size()];
+        String[] ipAddresses = new String[rows.size()];
+        Integer[] ports = new Integer[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            TerminalEDCRequest request = rows.get(i).request;
+            terminalIds[i] = request.getTerminalId();
+            locations[i] = request.getLocation();
+            statuses[i] = request.getStatus();
+            merchantNames[i] = request.getMerchantName();
+            ipAddresses[i] = request.getIpAddress();
+            ports[i] = request.getPort();
+        }
+
+        Connection connection = ps.getConnection();
+        ps.setTimestamp(1, now);
+        ps.setArray(2, connection.createArrayOf("text", terminalIds));
+        ps.setArray(3, connection.createArrayOf("text", locations));
+        ps.setArray(4, connection.createArrayOf("text", statuses));
+        ps.setArray(5, connection.createArrayOf("text", merchantNames));
+        ps.setArray(6, connection.createArrayOf("text", ipAddresses));
+        ps.setArray(7, connection.createArrayOf("integer", ports));
+    }
+
+    private static void bind(PreparedStatement ps, TerminalEDCRequest request, Timestamp now) throws SQLException {
+        ps.setString(1, request.getTerminalId());
+        ps.setString(2, request.getLocation());
+        ps.setString(3, request.getStatus());
+        ps.setString(4, request.getMerchantName());
+        ps.setString(5, request.getIpAddress());
+        if (request.getPort() != null) {
+            ps.setInt(6, request.getPort());
+        } else {
+            ps.setNull(6, Types.INTEGER);
+        }
+        ps.setTimestamp(7, now);
+    }
+
+    private String validate(TerminalEDCRequest request) {
+        Set<ConstraintViolation<TerminalEDCRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+        if (request.getPort() != null && (request.getPort() < 1 || request.getPort() > 65535)) {
+            return "Port must be between 1 and 65535";
+        }
+        return null;
+    }
+
+    static String[] readHeader(String line) {
+        List<String> names = parseCsvLine(line);
+        String[] fields = new String[names.size()];
+        for (int i = 0; i < fields.length; i++) {
+            String key = names.get(i).trim().toLowerCase(Locale.ROOT).replace("_", "").replace(" ", "");
+            fields[i] = CSV_COLUMNS.get(key);
+        }
+        for (String required : new String[] { "terminalId", "location", "status" }) {
+            boolean present = false;
+            for (String field : fields) {
+                present |= required.equals(field);
+            }
+            if (!present) {
+                throw new IllegalArgumentException("CSV header must contain a " + required + " column");
+            }
+        }
+        return fields;
+    }
+
+    static TerminalEDCRequest parseCsvRow(String line, String[] header) {
+        List<String> values = parseCsvLine(line);
+        if (values.size() != header.length) {
+            throw new IllegalArgumentException("Expected " + header.length + " columns but found " + values.size());
+        }
+
+        TerminalEDCRequest request = new TerminalEDCRequest();
+        for (int i = 0; i < header.length; i++) {
+            String value = values.get(i).trim();
+            if (header[i] == null || value.isEmpty()) {
+                continue;
+            }
+            switch (header[i]) {
+                case "terminalId": request.setTerminalId(value); break;
+                case "location": request.setLocation(value); break;
+                case "status": request.setStatus(value); break;
+                case "merchantName": request.setMerchantName(value); break;
+                case "ipAddress": request.setIpAddress(value); break;
+                case "port":
+                    try {
+                        request.setPort(Integer.valueOf(value));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Port is not a number: " + value);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return request;
+    }
+
+    // RFC 4180 fields on one line; quoted fields may not contain line breaks
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static final class BatchRow {
+        final long line;
+        final TerminalEDCRequest request;
+
+        BatchRow(long line, TerminalEDCRequest request) {
+            this.line = line;
+            this.request = request;
+        }
+    }
+
+    private final class ImportRun {
+        final Map<String, BatchRow> batch = new LinkedHashMap<>();
+        final List<TerminalImportErrorDto> errors = new ArrayList<>();
+        long totalRows;
+        long upserted;
+        long unchanged;
+        long failed;
+
+        void fail(long line, String terminalId, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new TerminalImportErrorDto(line, terminalId, message));
+            }
+        }
+    }
+}
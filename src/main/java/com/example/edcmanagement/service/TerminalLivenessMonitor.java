@@ -0,0 +1,254 @@
+package com.example.edcmanagement.service;
+
+import com.example.edcmanagement.dto.TerminalLivenessStatsDto;
+import com.example.edcmanagement.dto.TerminalOfflineEventDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves terminals that stop sending heartbeats from ACTIVE to OFFLINE.
+ *
+ * Every ping pushes the terminal's deadline in a {@link HeartbeatWheel}, so
+ * finding expired terminals never scans terminal_edc. ACTIVE terminals are
+ * loaded once at startup. Expired terminals are updated in chunks, and only
+ * if their stored last_ping is also older than the timeout, so pings handled
+ * by other nodes keep a terminal ACTIVE. Each transition is published as a
+ * {@link TerminalOfflineEventDto} application event and kept in a short
+ * in-memory history.
+ */
+@Component
+public class TerminalLivenessMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TerminalLivenessMonitor.class);
+
+    private static final int UPDATE_CHUNK_SIZE = 5000;
+
+    private static final String OFFLINE_SQL =
+        "UPDATE terminal_edc SET status = 'OFFLINE', updated_at = ? " +
+        "WHERE terminal_id = ANY(?::text[]) AND status = 'ACTIVE' " +
+        "AND (last_ping IS NULL OR last_ping < ?) " +
+        "RETURNING terminal_id, last_ping, id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TerminalRegistry terminalRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TerminalEntityCache terminalEntityCache;
+
+    // Lazy: the change bus applies remote changes to this monitor
+    @Autowired
+    @Lazy
+    private TerminalChangeBus changeBus;
+
+    @Value("${app.terminal.liveness.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.terminal.liveness.timeout-seconds:300}")
+    private long timeoutSeconds;
+
+    @Value("${app.terminal.liveness.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${app.terminal.liveness.load-fetch-size:10000}")
+    private int loadFetchSize;
+
+    @Value("${app.terminal.liveness.event-history-size:1000}")
+    private int eventHistorySize;
+
+    private HeartbeatWheel wheel;
+    private long timeoutMillis;
+
+    private volatile boolean loaded;
+
+    private final Deque<TerminalOfflineEventDto> recentEvents = new ArrayDeque<>();
+    private final AtomicLong offlineTransitions = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        timeoutMillis = timeoutSeconds * 1000;
+        // Span one timeout so an entry is looked at about once per timeout
+        int slotCount = (int) (timeoutMillis / tickMillis) + 2;
+        wheel = new HeartbeatWheel(tickMillis, slotCount, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            logger.info("Terminal liveness monitor disabled");
+            return;
+        }
+
+        reload();
+    }
+
+    /**
+     * Starts tracking every ACTIVE terminal in terminal_edc. Terminals that
+     * are already tracked keep the later of their two deadlines.
+     */
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+
+        // PostgreSQL only streams with a fetch size inside a transaction
+        JdbcTemplate streamingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingTemplate.setFetchSize(loadFetchSize);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status ->
+            streamingTemplate.query("SELECT terminal_id, last_ping FROM terminal_edc WHERE status = 'ACTIVE'",
+                rs -> {
+                    Timestamp lastPing = rs.getTimestamp(2);
+                    long pingedAt = lastPing != null ? lastPing.getTime() : start;
+                    wheel.heartbeat(rs.getString(1), pingedAt + timeoutMillis);
+                }));
+
+        loaded = true;
+        logger.info("Terminal liveness monitor tracking {} active terminals, loaded in {} ms",
+                   wheel.size(), System.currentTimeMillis() - start);
+    }
+
+    public void recordHeartbeat(String terminalId) {
+        if (enabled) {
+            wheel.heartbeat(terminalId, System.currentTimeMillis() + timeoutMillis);
+        }
+    }
+
+    /**
+     * Starts tracking a terminal that was set to ACTIVE without a ping.
+     */
+    public void track(String terminalId, LocalDateTime lastPing) {
+        if (enabled) {
+            long pingedAt = lastPing != null ? Timestamp.valueOf(lastPing).getTime() : System.currentTimeMillis();
+            wheel.heartbeat(terminalId, pingedAt + timeoutMillis);
+        }
+    }
+
+    public void untrack(String terminalId) {
+        wheel.remove(terminalId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.terminal.liveness.tick-ms:1000}")
+    public void checkDeadlines() {
+        if (!enabled || !loaded) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<String> expired = wheel.advance(now);
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        Timestamp cutoff = new Timestamp(now - timeoutMillis);
+        for (int from = 0; from < expired.size(); from += UPDATE_CHUNK_SIZE) {
+            markOffline(expired.subList(from, Math.min(from + UPDATE_CHUNK_SIZE, expired.size())), cutoff, now);
+        }
+    }
+
+    /**
+     * Offline transitions seen by this node, oldest first.
+     * @param since Only transitions after this time, or null for all that are kept
+     */
+    public List<TerminalOfflineEventDto> getRecentOfflineEvents(LocalDateTime since) {
+        List<TerminalOfflineEventDto> events = new ArrayList<>();
+        synchronized (recentEvents) {
+            for (TerminalOfflineEventDto event : recentEvents) {
+                if (since == null || event.getOfflineAt().isAfter(since)) {
+                    events.add(event);
+                }
+            }
+        }
+        return events;
+    }
+
+    public TerminalLivenessStatsDto getStats() {
+        return new TerminalLivenessStatsDto(enabled, timeoutSeconds, wheel.size(), offlineTransitions.get());
+    }
+
+    private void markOffline(List<String> terminalIds, Timestamp cutoff, long now) {
+        List<TerminalOfflineEventDto> events;
+        List<Long> ids = new ArrayList<>();
+        List<String> offlineTerminalIds = new ArrayList<>();
+        try {
+            LocalDateTime offlineAt = new Timestamp(now).toLocalDateTime();
+            events = jdbcTemplate.query(OFFLINE_SQL, ps -> {
+                Connection connection = ps.getConnection();
+                ps.setTimestamp(1, new Timestamp(now));
+                ps.setArray(2, connection.createArrayOf("text", terminalIds.toArray()));
+                ps.setTimestamp(3, cutoff);
+            }, (rs, rowNum) -> {
+                ids.add(rs.getLong(3));
+                offlineTerminalIds.add(rs.getString(1));
+                Timestamp lastPing = rs.getTimestamp(2);
+                return new TerminalOfflineEventDto(rs.getString(1),
+                    lastPing != null ? lastPing.toLocalDateTime() : null, offlineAt);
+            });
+        } catch (Exception e) {
+            logger.error("Failed to mark {} terminals offline, retrying on next tick", terminalIds.size(), e);
+            for (String terminalId : terminalIds) {
+                wheel.heartbeat(terminalId, now);
+            }
+            return;
+        }
+
+        terminalEntityCache.evictStatusChanged(ids);
+        try {
+            changeBus.publishOffline(ids, offlineTerminalIds);
+        } catch (Exception e) {
+            logger.warn("Failed to announce {} offline terminals to other nodes: {}", ids.size(), e.getMessage());
+        }
+        for (TerminalOfflineEventDto event : events) {
+            if (terminalRegistry.isLoaded()) {
+                terminalRegistry.register(event.getTerminalId(), "OFFLINE");
+            }
+            remember(event);
+            eventPublisher.publishEvent(event);
+        }
+
+        offlineTransitions.addAndGet(events.size());
+        logger.info("{} of {} terminals past their heartbeat deadline moved to OFFLINE",
+                   events.size(), terminalIds.size());
+    }
+
+    private void remember(TerminalOfflineEventDto event) {
+        synchronized (recentEvents) {
+            recentEvents.addLast(event);
+            while (recentEvents.size() > eventHistorySize) {
+                recentEvents.removeFirst();
+            }
+        }
+    }
+}
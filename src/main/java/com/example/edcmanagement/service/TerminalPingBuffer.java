@@ -0,0 +1,159 @@
+package com.example.edcmanagement.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces terminal last-ping updates.
+ *
+ * Echoes only record the latest ping per terminal in memory; a scheduled job
+ * writes them with one set-based UPDATE per chunk that skips rows whose ping
+ * and status would not change. The buffer is drained on shutdown.
+ */
+@Component
+public class TerminalPingBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TerminalPingBuffer.class);
+
+    private static final int FLUSH_CHUNK_SIZE = 5000;
+
+    // The locked pre-image tells which pings re-activated a terminal, the only ones that touch cached status queries
+    private static final String BULK_UPDATE_SQL =
+        "WITH v AS (SELECT unnest(?::text[]) AS terminal_id, unnest(?::timestamp[]) AS last_ping), " +
+        "previous AS (" +
+        "  SELECT t.id, t.status, v.last_ping FROM terminal_edc t JOIN v ON t.terminal_id = v.terminal_id " +
+        "  WHERE t.last_ping IS NULL OR t.last_ping < v.last_ping OR t.status <> 'ACTIVE' " +
+        "  ORDER BY t.id FOR UPDATE OF t" +
+        ") " +
+        "UPDATE terminal_edc t SET last_ping = p.last_ping, status = 'ACTIVE' " +
+        "FROM previous p WHERE t.id = p.id " +
+        "RETURNING t.id, p.status IS DISTINCT FROM 'ACTIVE'";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TerminalEntityCache terminalEntityCache;
+
+    private final ConcurrentHashMap<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong rowsUpdated = new AtomicLong();
+
+    /**
+     * Records a ping, keeping only the latest timestamp per terminal.
+     */
+    public void recordPing(String terminalId, LocalDateTime pingTime) {
+        pending.merge(terminalId, pingTime, (current, latest) -> latest.isAfter(current) ? latest : current);
+    }
+
+    @Scheduled(fixedDelayString = "${app.terminal.last-ping.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<String> terminalIds = new ArrayList<>(Math.min(pending.size(), FLUSH_CHUNK_SIZE));
+        List<Timestamp> pingTimes = new ArrayList<>(Math.min(pending.size(), FLUSH_CHUNK_SIZE));
+
+        for (Map.Entry<String, LocalDateTime> entry : pending.entrySet()) {
+            // Only remove the exact value being flushed; a newer ping stays for the next run
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                terminalIds.add(entry.getKey());
+                pingTimes.add(Timestamp.valueOf(entry.getValue()));
+            }
+
+            if (terminalIds.size() >= FLUSH_CHUNK_SIZE) {
+                writeChunk(terminalIds, pingTimes);
+                terminalIds.clear();
+                pingTimes.clear();
+            }
+        }
+
+        if (!terminalIds.isEmpty()) {
+            writeChunk(terminalIds, pingTimes);
+        }
+    }
+
+    /**
+     * Writes the given pings right away with one bulk statement per chunk.
+     */
+    public void writeNow(Collection<String> terminalIds, LocalDateTime pingTime) {
+        Timestamp timestamp = Timestamp.valueOf(pingTime);
+        List<String> chunkIds = new ArrayList<>(Math.min(terminalIds.size(), FLUSH_CHUNK_SIZE));
+        List<Timestamp> chunkTimes = new ArrayList<>(Math.min(terminalIds.size(), FLUSH_CHUNK_SIZE));
+
+        for (String terminalId : terminalIds) {
+            chunkIds.add(terminalId);
+            chunkTimes.add(timestamp);
+
+            if (chunkIds.size() >= FLUSH_CHUNK_SIZE) {
+                writeChunk(chunkIds, chunkTimes);
+                chunkIds.clear();
+                chunkTimes.clear();
+            }
+        }
+
+        if (!chunkIds.isEmpty()) {
+            writeChunk(chunkIds, chunkTimes);
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        logger.info("Draining {} pending last-ping updates", pending.size());
+        flush();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getRowsUpdated() {
+        return rowsUpdated.get();
+    }
+
+    private void writeChunk(List<String> terminalIds, List<Timestamp> pingTimes) {
+        try {
+            List<Long> pinged = new ArrayList<>();
+            List<Long> reactivated = new ArrayList<>();
+            jdbcTemplate.query(BULK_UPDATE_SQL, ps -> {
+                Connection connection = ps.getConnection();
+                ps.setArray(1, connection.createArrayOf("text", terminalIds.toArray()));
+                ps.setArray(2, connection.createArrayOf("timestamp", pingTimes.toArray()));
+            }, rs -> {
+                if (rs.getBoolean(2)) {
+                    reactivated.add(rs.getLong(1));
+                } else {
+                    pinged.add(rs.getLong(1));
+                }
+            });
+
+            rowsUpdated.addAndGet(pinged.size() + reactivated.size());
+            terminalEntityCache.evict(pinged);
+            terminalEntityCache.evictStatusChanged(reactivated);
+            logger.debug("Flushed {} last-ping updates, {} rows changed, {} terminals re-activated",
+                terminalIds.size(), pinged.size() + reactivated.size(), reactivated.size());
+
+        } catch (Exception e) {
+            logger.error("Failed to flush {} last-ping updates, re-queueing", terminalIds.size(), e);
+            for (int i = 0; i < terminalIds.size(); i++) {
+                recordPing(terminalIds.get(i), pingTimes.get(i).toLocalDateTime());
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.edcmanagement.service;
+
+import com.example.edcmanagement.dto.TerminalRegistryStatsDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory registry of terminal IDs and their status used by the echo path.
+ *
+ * The registry is loaded from terminal_edc once the application is ready and
+ * kept current by {@link TerminalEDCService} writes. Until the load finishes
+ * {@link #isLoaded()} is false and callers go to the database.
+ */
+@Component
+public class TerminalRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TerminalRegistry.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.terminal.registry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.terminal.registry.initial-capacity:100000}")
+    private int initialCapacity;
+
+    @Value("${app.terminal.registry.load-fetch-size:10000}")
+    private int loadFetchSize;
+
+    private TerminalIdTable table;
+
+    private volatile boolean loaded;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        table = new TerminalIdTable(initialCapacity);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            logger.info("Terminal registry disabled, echo lookups go to the database");
+            return;
+        }
+
+        reload();
+    }
+
+    /**
+     * Replaces the registry contents with the current terminal_edc rows.
+     */
+    public void reload() {
+        long start = System.currentTimeMillis();
+        loaded = false;
+        table.clear();
+
+        // PostgreSQL only streams with a fetch size inside a transaction
+        JdbcTemplate streamingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingTemplate.setFetchSize(loadFetchSize);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status ->
+            streamingTemplate.query("SELECT terminal_id, status FROM terminal_edc",
+                rs -> {
+                    table.put(rs.getString(1), rs.getString(2));
+                }));
+
+        loaded = true;
+        logger.info("Terminal registry loaded {} terminals in {} ms",
+                   table.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * @return the status of the terminal, or null when it is not registered
+     */
+    public String getStatus(String terminalId) {
+        String status = table.getStatus(terminalId);
+        if (status != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return status;
+    }
+
+    public boolean contains(String terminalId) {
+        return getStatus(terminalId) != null;
+    }
+
+    public void register(String terminalId, String status) {
+        table.put(terminalId, status);
+    }
+
+    public void unregister(String terminalId) {
+        table.remove(terminalId);
+    }
+
+    public TerminalRegistryStatsDto getStats() {
+        return new TerminalRegistryStatsDto(loaded, table.size(), table.capacity(),
+            table.memoryBytes(), hits.sum(), misses.sum());
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.edcmanagement.service;
+
+import com.example.edcmanagement.dto.CursorPage;
+import com.example.edcmanagement.dto.TerminalEDCDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Substring search over terminal location and merchant name.
+ *
+ * Both columns are searched through one pg_trgm GiST index on
+ * {@code lower(location || ' ' || coalesce(merchant_name, ''))}, which the
+ * application creates at startup. The index answers {@code LIKE '%text%'} and
+ * also returns rows in order of word distance to the search text, so a ranked
+ * page is read straight from the index instead of sorting every match.
+ * Without pg_trgm, searches fall back to an unranked sequential scan.
+ *
+ * Pages are keyset pages on (distance, id), or on id when unranked, so rows
+ * written between two requests do not shift later pages. The index still
+ * walks the closer matches to reach a later ranked page.
+ */
+@Service
+public class TerminalSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TerminalSearchService.class);
+
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private static final String INDEX_NAME = "idx_terminal_edc_search_trgm";
+
+    // Must stay identical to the indexed expression for the index to be used
+    private static final String SEARCH_TEXT = "lower(location || ' ' || coalesce(merchant_name, ''))";
+
+    private static final String FIELDS =
+        "id, terminal_id, location, status, merchant_name, ip_address, port, created_at, updated_at, last_ping";
+
+    private static final String COLUMNS = "SELECT " + FIELDS + " FROM terminal_edc ";
+
+    private static final String DISTANCE = "? <<-> " + SEARCH_TEXT;
+
+    private static final String RANKED_COLUMNS = "SELECT " + FIELDS + ", " + DISTANCE + " AS distance FROM terminal_edc ";
+
+    // Ties on distance are common (the same word matched), so id keeps the order total
+    private static final String RANKED_SQL =
+        RANKED_COLUMNS + "WHERE " + SEARCH_TEXT + " LIKE ? ORDER BY distance, id LIMIT ?";
+
+    private static final String RANKED_AFTER_SQL =
+        RANKED_COLUMNS + "WHERE " + SEARCH_TEXT + " LIKE ? AND (" + DISTANCE + ", id) > (CAST(? AS real), ?) " +
+        "ORDER BY distance, id LIMIT ?";
+
+    private static final String UNRANKED_SQL =
+        COLUMNS + "WHERE " + SEARCH_TEXT + " LIKE ? AND id > ? ORDER BY id LIMIT ?";
+
+    private static final String LOCATION_SQL =
+        COLUMNS + "WHERE " + SEARCH_TEXT + " LIKE ? AND lower(location) LIKE ?";
+
+    private static final String INDEX_VALID_SQL =
+        "SELECT i.indisvalid FROM pg_index i WHERE i.indexrelid = to_regclass('" + INDEX_NAME + "')";
+
+    private static final RowMapper<TerminalEDCDto> ROW_MAPPER = (rs, rowNum) -> new TerminalEDCDto(
+        rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+        rs.getString(6), (Integer) rs.getObject(7), toLocalDateTime(rs.getTimestamp(8)),
+        toLocalDateTime(rs.getTimestamp(9)), toLocalDateTime(rs.getTimestamp(10)));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.terminal.search.trigram.enabled:true}")
+    private boolean trigramEnabled;
+
+    private volatile boolean trigramAvailable;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndex() {
+        if (!trigramEnabled) {
+            logger.info("Trigram terminal search disabled, searches scan terminal_edc");
+            return;
+        }
+
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+
+            List<Boolean> valid = jdbcTemplate.queryForList(INDEX_VALID_SQL, Boolean.class);
+            if (valid.contains(Boolean.FALSE)) {
+                // Left behind by an interrupted concurrent build
+                jdbcTemplate.execute("DROP INDEX CONCURRENTLY " + INDEX_NAME);
+            }
+            if (!valid.contains(Boolean.TRUE)) {
+                long start = System.currentTimeMillis();
+                jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + INDEX_NAME +
+                    " ON terminal_edc USING gist ((" + SEARCH_TEXT + ") gist_trgm_ops)");
+                logger.info("Created terminal search index in {} ms", System.currentTimeMillis() - start);
+            }
+
+            trigramAvailable = true;
+        } catch (Exception e) {
+            logger.warn("pg_trgm terminal search index unavailable, searches scan terminal_edc: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Terminals whose location or merchant name contains the text, closest
+     * matches first.
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @throws IllegalArgumentException if the text is shorter than {@value #MIN_QUERY_LENGTH} characters
+     */
+    public CursorPage<TerminalEDCDto> search(String text, String cursor, int size) {
+        String query = text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+        if (query.length() < MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search text must be at least " + MIN_QUERY_LENGTH + " characters");
+        }
+
+        String pattern = containsPattern(query);
+        return trigramAvailable ? searchRanked(query, pattern, cursor, size) : searchUnranked(pattern, cursor, size);
+    }
+
+    /**
+     * Terminals whose location contains the text, filtered through the search
+     * index when the text is long enough for trigrams.
+     */
+    public List<TerminalEDCDto> searchByLocation(String location) {
+        String query = location.toLowerCase(Locale.ROOT);
+        String pattern = containsPattern(query);
+        if (!trigramAvailable || query.length() < MIN_QUERY_LENGTH) {
+            return jdbcTemplate.query(COLUMNS + "WHERE lower(location) LIKE ?", ROW_MAPPER, pattern);
+        }
+        return jdbcTemplate.query(LOCATION_SQL, ROW_MAPPER, pattern, pattern);
+    }
+
+    public boolean isTrigramAvailable() {
+        return trigramAvailable;
+    }
+
+    private CursorPage<TerminalEDCDto> searchRanked(String query, String pattern, String cursor, int size) {
+        List<Float> distances = new ArrayList<>();
+        RowMapper<TerminalEDCDto> rowMapper = (rs, rowNum) -> {
+            distances.add(rs.getFloat(11));
+            return ROW_MAPPER.mapRow(rs, rowNum);
+        };
+
+        // One extra row tells whether another page follows
+        List<TerminalEDCDto> terminals;
+        if (cursor == null) {
+            terminals = jdbcTemplate.query(RANKED_SQL, rowMapper, query, pattern, size + 1);
+        } else {
+            Object[] key = PageCursor.decodeDistanceAndId(cursor);
+            terminals = jdbcTemplate.query(RANKED_AFTER_SQL, rowMapper,
+                query, pattern, query, key[0], key[1], size + 1);
+        }
+
+        if (terminals.size() <= size) {
+            return new CursorPage<>(terminals, null);
+        }
+        return new CursorPage<>(terminals.subList(0, size),
+            PageCursor.encode(distances.get(size - 1), terminals.get(size - 1).getId()));
+    }
+
+    private CursorPage<TerminalEDCDto> searchUnranked(String pattern, String cursor, int size) {
+        long after = cursor == null ? 0 : PageCursor.decodeId(cursor);
+        List<TerminalEDCDto> terminals = jdbcTemplate.query(UNRANKED_SQL, ROW_MAPPER, pattern, after, size + 1);
+
+        if (terminals.size() <= size) {
+            return new CursorPage<>(terminals, null);
+        }
+        return new CursorPage<>(terminals.subList(0, size), PageCursor.encode(terminals.get(size - 1).getId()));
+    }
+
+    private static String containsPattern(String text) {
+        String escaped = text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
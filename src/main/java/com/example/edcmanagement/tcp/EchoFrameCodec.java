@@ -0,0 +1,80 @@
+package com.example.edcmanagement.tcp;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codec for the network-management echo frames sent by terminals over TCP.
+ *
+ * Every frame is a 2 byte big-endian length followed by an ASCII payload of
+ * '|' separated fields, in the spirit of an ISO 8583 0800/0810 exchange:
+ * <pre>
+ * request : 0800|terminalId|requestTime(yyyy-MM-dd HH:mm:ss, may be empty)|signature
+ * response: 0810|terminalId|responseCode
+ * </pre>
+ * Response codes: 00 approved, 25 terminal not found, 63 security violation,
+ * 30 format error, 96 system malfunction.
+ */
+final class EchoFrameCodec {
+
+    static final String REQUEST_MTI = "0800";
+    static final String RESPONSE_MTI = "0810";
+
+    static final String APPROVED = "00";
+    static final String FORMAT_ERROR = "30";
+    static final String NOT_FOUND = "25";
+    static final String SECURITY_VIOLATION = "63";
+    static final String SYSTEM_MALFUNCTION = "96";
+
+    private static final int HEADER_LENGTH = 2;
+
+    private EchoFrameCodec() {
+    }
+
+    /**
+     * Reads the next complete frame payload from {@code in} (in read mode).
+     * @return the payload, or null when the buffer does not hold a full frame yet
+     * @throws IllegalStateException if the frame is longer than {@code maxFrameLength}
+     */
+    static String readFrame(ByteBuffer in, int maxFrameLength) {
+        if (in.remaining() < HEADER_LENGTH) {
+            return null;
+        }
+
+        int length = ((in.get(in.position()) & 0xff) << 8) | (in.get(in.position() + 1) & 0xff);
+        if (length > maxFrameLength) {
+            throw new IllegalStateException("Frame of " + length + " bytes exceeds limit of " + maxFrameLength);
+        }
+        if (in.remaining() < HEADER_LENGTH + length) {
+            return null;
+        }
+
+        in.position(in.position() + HEADER_LENGTH);
+        byte[] payload = new byte[length];
+        in.get(payload);
+        return new String(payload, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Splits a request payload into its fields.
+     * @return MTI, terminal ID, request time and signature, or null if the payload is malformed
+     */
+    static String[] parseRequest(String payload) {
+        String[] fields = payload.split("\\|", -1);
+        if (fields.length != 4 || !REQUEST_MTI.equals(fields[0]) || fields[1].isEmpty()) {
+            return null;
+        }
+        return fields;
+    }
+
+    static byte[] encodeResponse(String terminalId, String responseCode) {
+        byte[] payload = (RESPONSE_MTI + "|" + (terminalId != null ? terminalId : "") + "|" + responseCode)
+            .getBytes(StandardCharsets.US_ASCII);
+
+        byte[] frame = new byte[HEADER_LENGTH + payload.length];
+        frame[0] = (byte) (payload.length >>> 8);
+        frame[1] = (byte) payload.length;
+        System.arraycopy(payload, 0, frame, HEADER_LENGTH, payload.length);
+        return frame;
+    }
+}
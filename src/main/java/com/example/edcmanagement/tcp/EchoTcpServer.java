@@ -0,0 +1,413 @@
+package com.example.edcmanagement.tcp;
+
+import com.example.edcmanagement.service.EchoLogService;
+import com.example.edcmanagement.service.EchoProcessingService;
+import com.example.edcmanagement.service.SignatureService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Embedded NIO listener for terminals that send echo frames over raw TCP
+ * (see {@link EchoFrameCodec} for the frame layout).
+ *
+ * One acceptor thread hands connections round-robin to a few event-loop
+ * threads. The event loops only move bytes and parse frames: each frame is
+ * checked and processed on the bounded echoExecutor, through the same
+ * {@link SignatureService} and {@link EchoProcessingService} flow as
+ * POST /edc/echo, so a registry miss, a synchronous echo log write or a
+ * unit-of-work round trip never stalls the other connections of a loop.
+ * Connections are persistent and may pipeline frames. Each connection keeps
+ * its frames in arrival order; a finished frame wakes its event loop, which
+ * writes responses from the head of that queue, so they go out in request
+ * order. At most {@code max-pipelined-frames} frames per connection are in
+ * flight before the loop stops reading from it, and a frame the saturated
+ * executor rejects is answered with SYSTEM_MALFUNCTION right away.
+ */
+@Component
+@ConditionalOnProperty(name = "app.echo.tcp.enabled", havingValue = "true")
+public class EchoTcpServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(EchoTcpServer.class);
+
+    private static final String USER_AGENT = "edc-tcp";
+
+    private static final int MAX_PENDING_RESPONSE_BYTES = 64 * 1024;
+
+    @Autowired
+    private SignatureService signatureService;
+
+    @Autowired
+    private EchoProcessingService echoProcessingService;
+
+    @Autowired
+    private EchoLogService echoLogService;
+
+    @Autowired
+    @Qualifier("echoExecutor")
+    private Executor echoExecutor;
+
+    @Value("${app.echo.tcp.port:8583}")
+    private int port;
+
+    @Value("${app.echo.tcp.event-loop-threads:2}")
+    private int eventLoopThreads;
+
+    @Value("${app.echo.tcp.max-frame-length:1024}")
+    private int maxFrameLength;
+
+    @Value("${app.echo.tcp.max-pipelined-frames:32}")
+    private int maxPipelinedFrames;
+
+    private ServerSocketChannel serverChannel;
+    private EventLoop[] eventLoops;
+    private Thread acceptorThread;
+    private volatile boolean running;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        running = true;
+
+        eventLoops = new EventLoop[eventLoopThreads];
+        for (int i = 0; i < eventLoopThreads; i++) {
+            eventLoops[i] = new EventLoop("echo-tcp-loop-" + i);
+            eventLoops[i].thread.start();
+        }
+
+        acceptorThread = new Thread(this::acceptLoop, "echo-tcp-acceptor");
+        acceptorThread.setDaemon(true);
+        acceptorThread.start();
+
+        logger.info("Echo TCP listener started on port {} with {} event loops", port, eventLoopThreads);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            logger.warn("Error closing echo TCP listener", e);
+        }
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.selector.wakeup();
+        }
+
+        logger.info("Echo TCP listener stopped");
+    }
+
+    private void acceptLoop() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                eventLoops[next].register(channel);
+                next = (next + 1) % eventLoops.length;
+            } catch (ClosedChannelException e) {
+                break;
+            } catch (IOException e) {
+                logger.warn("Error accepting echo TCP connection", e);
+            }
+        }
+    }
+
+    // Runs on the echo executor
+    private byte[] handleFrame(String[] fields, String clientIp) {
+        String terminalId = fields[1];
+        String requestTime = fields[2].isEmpty() ? null : fields[2];
+        LocalDateTime requestTimestamp = LocalDateTime.now();
+
+        try {
+            boolean isSignatureValid = signatureService.validateEchoSignature(
+                fields[3], terminalId, requestTime, requestTimestamp);
+
+            String outcome = echoProcessingService.processEcho(
+                terminalId, clientIp, USER_AGENT, isSignatureValid, requestTimestamp);
+
+            if (EchoProcessingService.UNAUTHORIZED.equals(outcome)) {
+                return EchoFrameCodec.encodeResponse(terminalId, EchoFrameCodec.SECURITY_VIOLATION);
+            }
+            if (EchoProcessingService.NOT_FOUND.equals(outcome)) {
+                return EchoFrameCodec.encodeResponse(terminalId, EchoFrameCodec.NOT_FOUND);
+            }
+            return EchoFrameCodec.encodeResponse(terminalId, EchoFrameCodec.APPROVED);
+
+        } catch (Exception e) {
+            logger.error("Error processing TCP echo for terminal: {}", terminalId, e);
+
+            try {
+                echoLogService.recordEchoLog(terminalId, clientIp, USER_AGENT,
+                    null, "ERROR", "Internal server error: " + e.getMessage());
+            } catch (Exception logError) {
+                logger.error("Error recording failed TCP echo for terminal: {}", terminalId, logError);
+            }
+
+            return EchoFrameCodec.encodeResponse(terminalId, EchoFrameCodec.SYSTEM_MALFUNCTION);
+        }
+    }
+
+    /**
+     * A frame handed to the executor; the response is set by the worker.
+     */
+    private static final class PendingFrame {
+        volatile byte[] response;
+    }
+
+    private final class EventLoop implements Runnable {
+        final Thread thread;
+        final Selector selector;
+        final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+        // Connections with a frame finished by a worker since the last select
+        final Queue<Connection> completed = new ConcurrentLinkedQueue<>();
+
+        EventLoop(String name) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+        }
+
+        void register(SocketChannel channel) {
+            pending.add(channel);
+            selector.wakeup();
+        }
+
+        // Called from echo executor threads
+        void complete(Connection connection) {
+            completed.add(connection);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select();
+                    registerPending();
+                    writeCompleted();
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isValid() && key.isReadable()) {
+                                connection.read();
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                connection.flush();
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            logger.debug("Closing echo TCP connection from {}: {}", connection.clientIp, e.getMessage());
+                            connection.close();
+                        }
+                    }
+                } catch (IOException e) {
+                    logger.error("Echo TCP event loop error", e);
+                }
+            }
+
+            for (SelectionKey key : selector.keys()) {
+                ((Connection) key.attachment()).close();
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                logger.warn("Error closing echo TCP selector", e);
+            }
+        }
+
+        private void registerPending() {
+            SocketChannel channel;
+            while ((channel = pending.poll()) != null) {
+                try {
+                    SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                    key.attach(new Connection(channel, key, this));
+                } catch (IOException e) {
+                    logger.warn("Error registering echo TCP connection", e);
+                }
+            }
+        }
+
+        private void writeCompleted() {
+            Connection connection;
+            while ((connection = completed.poll()) != null) {
+                if (!connection.key.isValid()) {
+                    // Closed while its frames were being processed
+                    continue;
+                }
+                try {
+                    connection.advance();
+                } catch (IOException | RuntimeException e) {
+                    logger.debug("Closing echo TCP connection from {}: {}", connection.clientIp, e.getMessage());
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    private final class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final EventLoop eventLoop;
+        final String clientIp;
+        final ByteBuffer in;
+        ByteBuffer out = ByteBuffer.allocate(256);
+        // Frames in arrival order; only touched by the event loop thread
+        final Deque<PendingFrame> inFlight = new ArrayDeque<>();
+        boolean inputClosed;
+
+        Connection(SocketChannel channel, SelectionKey key, EventLoop eventLoop) throws IOException {
+            this.channel = channel;
+            this.key = key;
+            this.eventLoop = eventLoop;
+            this.clientIp = ((InetSocketAddress) channel.getRemoteAddress()).getAddress().getHostAddress();
+            this.in = ByteBuffer.allocate(maxFrameLength + 2);
+        }
+
+        void read() throws IOException {
+            if (channel.read(in) < 0) {
+                // Answer the frames already received before closing
+                inputClosed = true;
+            }
+
+            advance();
+        }
+
+        /**
+         * Hands every complete frame in the read buffer to the executor, up
+         * to the pipelining limit. Frames beyond it stay buffered until
+         * responses drain.
+         */
+        boolean dispatchFrames() {
+            boolean dispatched = false;
+            in.flip();
+            String payload;
+            while (inFlight.size() < maxPipelinedFrames
+                    && (payload = EchoFrameCodec.readFrame(in, maxFrameLength)) != null) {
+                inFlight.add(dispatch(payload));
+                dispatched = true;
+            }
+            in.compact();
+            return dispatched;
+        }
+
+        PendingFrame dispatch(String payload) {
+            PendingFrame frame = new PendingFrame();
+
+            String[] fields = EchoFrameCodec.parseRequest(payload);
+            if (fields == null) {
+                logger.warn("Malformed echo frame from {}", clientIp);
+                frame.response = EchoFrameCodec.encodeResponse(null, EchoFrameCodec.FORMAT_ERROR);
+                return frame;
+            }
+
+            try {
+                echoExecutor.execute(() -> {
+                    frame.response = handleFrame(fields, clientIp);
+                    eventLoop.complete(this);
+                });
+            } catch (RejectedExecutionException e) {
+                logger.warn("Echo executor saturated, rejecting TCP echo for terminal: {}", fields[1]);
+                frame.response = EchoFrameCodec.encodeResponse(fields[1], EchoFrameCodec.SYSTEM_MALFUNCTION);
+            }
+            return frame;
+        }
+
+        /**
+         * Dispatches buffered frames and moves finished responses from the
+         * head of the queue to the write buffer; a response behind an
+         * unfinished frame waits for it. Draining the head makes room for
+         * frames held back by the pipelining limit, so both repeat until
+         * neither makes progress.
+         */
+        void advance() throws IOException {
+            boolean progress = true;
+            while (progress) {
+                progress = dispatchFrames();
+
+                PendingFrame head;
+                while ((head = inFlight.peek()) != null && head.response != null) {
+                    inFlight.poll();
+                    enqueue(head.response);
+                    progress = true;
+                }
+            }
+            flush();
+        }
+
+        void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+
+            if (inputClosed && inFlight.isEmpty() && out.position() == 0) {
+                close();
+                return;
+            }
+
+            // Only wait for writability while a response is still pending, and stop reading
+            // from clients that pipeline faster than their echoes are processed or consumed
+            int ops = 0;
+            if (!inputClosed && inFlight.size() < maxPipelinedFrames && out.position() <= MAX_PENDING_RESPONSE_BYTES) {
+                ops |= SelectionKey.OP_READ;
+            }
+            if (out.position() > 0) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            key.interestOps(ops);
+        }
+
+        void enqueue(byte[] frame) {
+            if (out.remaining() < frame.length) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + frame.length));
+                out.flip();
+                larger.put(out);
+                out = larger;
+            }
+            out.put(frame);
+        }
+
+        void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Error closing echo TCP connection", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+-- Converts echo_log into a table range-partitioned on request_timestamp.
+-- Idempotent: only checks the indexes once echo_log is partitioned. Run by
+-- EchoLogPartitionManager at every startup when app.echo-log.partitioning.enabled=true,
+-- or by hand with psql.
+--
+-- Existing rows are kept as one partition (echo_log_legacy) covering everything up to
+-- the start of tomorrow; EchoLogPartitionManager creates the partitions after that.
+-- Attaching it validates the range with one scan of the old table.
+
+DO $$
+DECLARE
+    cutover TIMESTAMP := date_trunc('day', now()) + INTERVAL '1 day';
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = to_regclass('echo_log')) = 'r' THEN
+        LOCK TABLE echo_log IN ACCESS EXCLUSIVE MODE;
+
+        ALTER TABLE echo_log RENAME TO echo_log_legacy;
+        IF EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conname = 'echo_log_pkey' AND conrelid = 'echo_log_legacy'::regclass) THEN
+            ALTER TABLE echo_log_legacy RENAME CONSTRAINT echo_log_pkey TO echo_log_legacy_pkey;
+        END IF;
+
+        CREATE TABLE echo_log (LIKE echo_log_legacy INCLUDING DEFAULTS)
+            PARTITION BY RANGE (request_timestamp);
+        -- The partition key must be part of the primary key; id alone stays unique through echo_log_id_seq
+        ALTER TABLE echo_log ADD CONSTRAINT echo_log_pkey PRIMARY KEY (id, request_timestamp);
+        -- A BIGSERIAL id leaves the sequence owned by echo_log_legacy.id while the new table's default
+        -- still uses it, and retention could then never drop echo_log_legacy
+        ALTER SEQUENCE IF EXISTS echo_log_id_seq OWNED BY echo_log.id;
+
+        EXECUTE format('ALTER TABLE echo_log ATTACH PARTITION echo_log_legacy FOR VALUES FROM (MINVALUE) TO (%L)', cutover);
+
+        -- Catches rows outside every range instead of failing the insert; should stay empty
+        CREATE TABLE echo_log_default PARTITION OF echo_log DEFAULT;
+    END IF;
+END
+$$;
+
+-- ddl-auto=update creates the entity's indexes on the plain table before the conversion, so
+-- they end up on echo_log_legacy under the names the parent needs. Renamed, they free those
+-- names and the parent indexes below attach them instead of being skipped. Also repairs
+-- tables converted before this step, where the parent was left without indexes.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_index WHERE indexrelid = to_regclass('idx_echo_log_terminal_ts')
+               AND indrelid <> 'echo_log'::regclass) THEN
+        ALTER INDEX idx_echo_log_terminal_ts RENAME TO idx_echo_log_legacy_terminal_ts;
+    END IF;
+    IF EXISTS (SELECT 1 FROM pg_index WHERE indexrelid = to_regclass('idx_echo_log_ts_id')
+               AND indrelid <> 'echo_log'::regclass) THEN
+        ALTER INDEX idx_echo_log_ts_id RENAME TO idx_echo_log_legacy_ts_id;
+    END IF;
+END
+$$;
+
+-- Index strategy (created on every partition):
+--   terminal history, per-terminal counts and terminal + time range queries
+CREATE INDEX IF NOT EXISTS idx_echo_log_terminal_ts ON echo_log (terminal_id, request_timestamp DESC);
+--   fleet-wide time range queries (pruned to the matching partitions) and ordered paging
+CREATE INDEX IF NOT EXISTS idx_echo_log_ts_id ON echo_log (request_timestamp, id);
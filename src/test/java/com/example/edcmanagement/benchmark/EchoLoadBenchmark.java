@@ -0,0 +1,138 @@
+package com.example.edcmanagement.benchmark;
+
+import org.apache.commons.codec.digest.HmacAlgorithms;
+import org.apache.commons.codec.digest.HmacUtils;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load generator comparing the synchronous /edc/echo endpoint with /edc/echo/async.
+ *
+ * Run against a started application:
+ * <pre>
+ * java -cp target/test-classes:target/classes:commons-codec.jar \
+ *   com.example.edcmanagement.benchmark.EchoLoadBenchmark http://localhost:8080/api EDC001 200 30
+ * </pre>
+ * Arguments: base URL, terminal ID, concurrency, seconds per mode, HMAC secret (optional).
+ */
+public class EchoLoadBenchmark {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080/api";
+        String terminalId = args.length > 1 ? args[1] : "EDC001";
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        String secret = args.length > 4 ? args[4] : "EDCmgmt2025!.?";
+
+        System.out.println("=== Echo Load Benchmark ===");
+        System.out.println("Concurrency: " + concurrency + ", duration per mode: " + seconds + "s");
+        System.out.println();
+
+        run("sync ", baseUrl + "/edc/echo", terminalId, secret, concurrency, seconds);
+        run("async", baseUrl + "/edc/echo/async", terminalId, secret, concurrency, seconds);
+    }
+
+    private static void run(String label, String url, String terminalId, String secret,
+                            int concurrency, int seconds) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        List<Future<Result>> futures = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(pool.submit(() -> drive(url, terminalId, secret, deadline)));
+        }
+
+        long[] latencies = new long[0];
+        long errors = 0;
+        for (Future<Result> future : futures) {
+            Result result = future.get();
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + result.count);
+            System.arraycopy(result.latencies, 0, latencies, offset, result.count);
+            errors += result.errors;
+        }
+        pool.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("%s  requests=%d  errors=%d  throughput=%.1f req/s  p50=%.2f ms  p95=%.2f ms  p99=%.2f ms%n",
+            label, latencies.length, errors, (double) latencies.length / seconds,
+            percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99));
+    }
+
+    private static Result drive(String url, String terminalId, String secret, long deadline) {
+        Result result = new Result();
+        byte[] body = ("{\"terminalId\": \"" + terminalId + "\"}").getBytes(StandardCharsets.UTF_8);
+
+        while (System.nanoTime() < deadline) {
+            String requestTime = LocalDateTime.now().format(DATE_TIME_FORMATTER);
+            String signature = new HmacUtils(HmacAlgorithms.HMAC_SHA_256, requestTime + "|" + secret)
+                .hmacHex(terminalId);
+
+            long start = System.nanoTime();
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+                connection.setRequestMethod("POST");
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                connection.setRequestProperty("Signature", signature);
+                connection.setRequestProperty("Request-Time", requestTime);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body);
+                }
+
+                int status = connection.getResponseCode();
+                InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+                if (in != null) {
+                    byte[] buffer = new byte[1024];
+                    while (in.read(buffer) != -1) {
+                        // drain so the connection can be kept alive
+                    }
+                    in.close();
+                }
+
+                if (status != 200) {
+                    result.errors++;
+                }
+            } catch (Exception e) {
+                result.errors++;
+            }
+            result.add(System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static final class Result {
+        long[] latencies = new long[1024];
+        int count;
+        long errors;
+
+        void add(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+    }
+}
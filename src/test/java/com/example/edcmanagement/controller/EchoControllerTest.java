@@ -0,0 +1,41 @@
+package com.example.edcmanagement.controller;
+
+import com.example.edcmanagement.dto.EchoRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class EchoControllerTest {
+
+    @Test
+    void requestTimeHeaderTakesPrecedenceOverBody() {
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+        httpRequest.addHeader("Request-Time", "2025-03-07 09:05:01");
+
+        assertEquals("2025-03-07 09:05:01",
+            EchoController.resolveRequestTime(echoRequest("2025-03-07 09:00:00"), httpRequest));
+        assertEquals("2025-03-07 09:05:01", EchoController.resolveRequestTime(echoRequest(null), httpRequest));
+    }
+
+    @Test
+    void requestTimeFallsBackToBody() {
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+
+        assertEquals("2025-03-07 09:00:00",
+            EchoController.resolveRequestTime(echoRequest("2025-03-07 09:00:00"), httpRequest));
+    }
+
+    @Test
+    void requestTimeMissingFromHeaderAndBody() {
+        assertNull(EchoController.resolveRequestTime(echoRequest(null), new MockHttpServletRequest()));
+    }
+
+    private static EchoRequest echoRequest(String requestTime) {
+        EchoRequest request = new EchoRequest();
+        request.setTerminalId("EDC001");
+        request.setRequestTime(requestTime);
+        return request;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.edcmanagement.service;
+
+import com.example.edcmanagement.dto.EchoLogDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EchoRingTest {
+
+    private static final long START = EchoRing.toMicros(LocalDateTime.of(2025, 3, 7, 9, 0));
+    private static final long SECOND = 1_000_000L;
+
+    @Test
+    void collectsWindowNewestFirst() {
+        EchoRing ring = new EchoRing("EDC001", 8, new StringDictionary(16), START, START);
+        for (int i = 1; i <= 5; i++) {
+            add(ring, i, START + i * SECOND);
+        }
+
+        List<EchoLogDto> echoLogs = collect(ring, START + 2 * SECOND, START + 4 * SECOND);
+
+        assertEquals(3, echoLogs.size());
+        assertEquals(4L, echoLogs.get(0).getId());
+        assertEquals(3L, echoLogs.get(1).getId());
+        assertEquals(2L, echoLogs.get(2).getId());
+        assertEquals(EchoRing.fromMicros(START + 4 * SECOND), echoLogs.get(0).getRequestTimestamp());
+        assertEquals("EDC001", echoLogs.get(0).getTerminalId());
+    }
+
+    @Test
+    void coveredSinceStaysUntilTheRingIsFull() {
+        EchoRing ring = new EchoRing("EDC001", 4, new StringDictionary(16), START, START);
+        for (int i = 1; i <= 4; i++) {
+            add(ring, i, START + i * SECOND);
+        }
+
+        assertEquals(START, ring.getCoveredSince());
+        assertEquals(4, collect(ring, START, START + 10 * SECOND).size());
+    }
+
+    @Test
+    void overwriteRaisesCoveredSincePastTheOverwrittenEcho() {
+        EchoRing ring = new EchoRing("EDC001", 4, new StringDictionary(16), START, START);
+        for (int i = 1; i <= 6; i++) {
+            add(ring, i, START + i * SECOND);
+        }
+
+        // Echoes 1 and 2 were overwritten; everything after echo 2 is still held
+        assertEquals(START + 2 * SECOND + 1, ring.getCoveredSince());
+        List<EchoLogDto> echoLogs = collect(ring, ring.getCoveredSince(), START + 10 * SECOND);
+        assertEquals(4, echoLogs.size());
+        assertEquals(6L, echoLogs.get(0).getId());
+        assertEquals(3L, echoLogs.get(3).getId());
+    }
+
+    @Test
+    void coveredSinceNeverMovesBackForOutOfOrderEchoes() {
+        EchoRing ring = new EchoRing("EDC001", 2, new StringDictionary(16), START, START);
+        add(ring, 1, START + 10 * SECOND);
+        add(ring, 2, START + 5 * SECOND);
+        add(ring, 3, START + 6 * SECOND);
+        assertEquals(START + 10 * SECOND + 1, ring.getCoveredSince());
+
+        // Overwrites the echo at +5s, which is older than what is already missing
+        add(ring, 4, START + 7 * SECOND);
+        assertEquals(START + 10 * SECOND + 1, ring.getCoveredSince());
+    }
+
+    @Test
+    void coveredSinceStartsAtTheGivenPoint() {
+        EchoRing ring = new EchoRing("EDC001", 4, new StringDictionary(16), START + 30 * SECOND, START);
+
+        assertEquals(START + 30 * SECOND, ring.getCoveredSince());
+    }
+
+    @Test
+    void addTracksLastWrite() {
+        EchoRing ring = new EchoRing("EDC001", 4, new StringDictionary(16), START, START);
+        assertEquals(START, ring.getLastWrite());
+
+        ring.add(1, START, EchoProcessingService.SUCCESS, true, null, null, null, START + 7 * SECOND);
+
+        assertEquals(START + 7 * SECOND, ring.getLastWrite());
+    }
+
+    @Test
+    void roundTripsAllFields() {
+        EchoRing ring = new EchoRing("EDC001", 4, new StringDictionary(16), START, START);
+        ring.add(1, START, EchoProcessingService.UNAUTHORIZED, false, "10.0.0.1", "curl/8.0", "Invalid signature", START);
+        ring.add(2, START + 1, "SOMETHING_ELSE", null, null, null, null, START);
+
+        List<EchoLogDto> echoLogs = collect(ring, START, START + 1);
+        EchoLogDto other = echoLogs.get(0);
+        EchoLogDto unauthorized = echoLogs.get(1);
+
+        assertEquals(EchoProcessingService.UNAUTHORIZED, unauthorized.getResponseStatus());
+        assertFalse(unauthorized.getSignatureValid());
+        assertEquals("10.0.0.1", unauthorized.getClientIp());
+        assertEquals("curl/8.0", unauthorized.getUserAgent());
+        assertEquals("Invalid signature", unauthorized.getErrorMessage());
+
+        assertNull(other.getResponseStatus());
+        assertNull(other.getSignatureValid());
+        assertNull(other.getClientIp());
+        assertNull(other.getUserAgent());
+        assertNull(other.getErrorMessage());
+    }
+
+    @Test
+    void stringsTheDictionaryCannotTakeAreKeptInTheRing() {
+        StringDictionary dictionary = new StringDictionary(1);
+        EchoRing ring = new EchoRing("EDC001", 2, dictionary, START, START);
+        long before = ring.memoryBytes();
+
+        long grown = ring.add(1, START, EchoProcessingService.SUCCESS, true, "10.0.0.1", "curl/8.0", null, START);
+
+        assertTrue(grown > 0);
+        assertEquals(before + grown, ring.memoryBytes());
+        assertEquals(1, dictionary.size());
+        EchoLogDto echoLog = collect(ring, START, START).get(0);
+        assertEquals("10.0.0.1", echoLog.getClientIp());
+        assertEquals("curl/8.0", echoLog.getUserAgent());
+
+        // Overwriting the slot clears the old overflow string
+        ring.add(2, START + 1, EchoProcessingService.SUCCESS, true, "10.0.0.1", null, null, START);
+        ring.add(3, START + 2, EchoProcessingService.SUCCESS, true, "10.0.0.1", null, null, START);
+        for (EchoLogDto remaining : collect(ring, START, START + 2)) {
+            assertEquals("10.0.0.1", remaining.getClientIp());
+            assertNull(remaining.getUserAgent());
+        }
+    }
+
+    @Test
+    void microsRoundTrip() {
+        LocalDateTime dateTime = LocalDateTime.of(1965, 12, 31, 23, 59, 59, 123_456_000);
+
+        assertEquals(dateTime, EchoRing.fromMicros(EchoRing.toMicros(dateTime)));
+    }
+
+    private static void add(EchoRing ring, long id, long timestamp) {
+        ring.add(id, timestamp, EchoProcessingService.SUCCESS, true, "10.0.0.1", "curl/8.0", null, timestamp);
+    }
+
+    private static List<EchoLogDto> collect(EchoRing ring, long from, long to) {
+        List<EchoLogDto> echoLogs = new ArrayList<>();
+        ring.collect(from, to, echoLogs);
+        return echoLogs;
+    }
+}
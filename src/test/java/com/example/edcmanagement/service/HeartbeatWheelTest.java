@@ -0,0 +1,162 @@
+package com.example.edcmanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The wheel never reads the clock itself, so these tests drive it with
+ * explicit times: 100 ms ticks and 12 slots, one turn is 1200 ms.
+ */
+class HeartbeatWheelTest {
+
+    private static final long TICK = 100;
+    private static final int SLOTS = 12;
+    private static final long TIMEOUT = 1000;
+
+    @Test
+    void expiresWhenDeadlinePasses() {
+        HeartbeatWheel wheel = new HeartbeatWheel(TICK, SLOTS, 0);
+        wheel.track("EDC001", TIMEOUT);
+
+        assertTrue(wheel.advance(500).isEmpty());
+        assertTrue(wheel.advance(999).isEmpty());
+        assertEquals(expired("EDC001"), wheel.advance(1000));
+        assertEquals(0, wheel.size());
+        assertTrue(wheel.advance(5000).isEmpty());
+    }
+
+    @Test
+    void expiresWithinOneTickOfAnUnalignedDeadline() {
+        HeartbeatWheel wheel = new HeartbeatWheel(TICK, SLOTS, 0);
+        wheel.track("EDC001", 1050);
+
+        assertTrue(wheel.advance(1000).isEmpty());
+        assertTrue(wheel.advance(1050).isEmpty());
+        assertEquals(expired("EDC001"), wheel.advance(1100));
+    }
+
+    @Test
+    void heartbeatExtendsDeadline() {
+        HeartbeatWheel wheel = new HeartbeatWheel(TICK, SLOTS, 0);
+        wheel.track("EDC001", TIMEOUT);
+
+        long now = 800;
+        assertTrue(wheel.advance(now).isEmpty());
+        wheel.heartbeat("EDC001", now + TIMEOUT);
+
+        assertTrue(wheel.advance(1000).isEmpty());
+        assertTrue(wheel.advance(1799).isEmpty());
+        assertEquals(1, wheel.size());
+        assertEquals(expired("EDC001"), wheel.advance(1800));
+    }
+
+    @Test
+    void earlierDeadlineDoesNotShortenTracking() {
+        HeartbeatWheel wheel = new HeartbeatWheel(TICK, SLOTS, 0);
+        wheel.heartbeat("EDC001", 1500);
+        wheel.heartbeat("EDC001", 500);
+        wheel.track("EDC001", 700);
+
+        assertTrue(wheel.advance(1499).isEmpty());
+        assertEquals(expired("EDC001"), wheel.advance(1500));
+    }
+
+    @Test
+    void heartbeatAfterExpiryTracksAgain() {
+        HeartbeatWheel wheel = new HeartbeatWheel(TICK, SLOTS, 0);
+        wheel.heartbeat("EDC001", TIMEOUT);
+        assertEquals(expired("EDC001"), wheel.advance(1000));
+
+        wheel.heartbeat("EDC001", 1200 + TIMEOUT);
+
+        assertEquals(1, wheel.size());
+        assertTrue(wheel.advance(2199).isEmpty());
+        assertEquals(expired("EDC001"), wheel.advance(2200));
+    }
+
+    @Test
+    void removedTerminalDoesNotExpire() {
+        HeartbeatWheel wheel = new HeartbeatWheel(TICK, SLOTS, 0);
+        wheel.track("EDC001", TIMEOUT);
+        wheel.track("EDC002", TIMEOUT);
+
+        wheel.remove("EDC001");
+
+        assertEquals(1, wheel.size());
+        assertEquals(expired("EDC002"), wheel.advance(1000));
+    }
+
+    @Test
+    void deadlineMoreThanOneTurnAheadWaitsForIt() {
+        HeartbeatWheel wheel = new HeartbeatWheel(TICK, SLOTS, 0);
+        wheel.track("EDC001", 5000);
+
+        // Its slot comes up four times before the deadline
+        for (long now = 0; now < 5000; now += TICK) {
+            assertTrue(wheel.advance(now).isEmpty(), "expired early at " + now);
+        }
+        assertEquals(expired("EDC001"), wheel.advance(5000));
+    }
+
+    @Test
+    void clockJumpOfSeveralTurnsVisitsEverySlotOnce() {
+        HeartbeatWheel wheel = new HeartbeatWheel(TICK, SLOTS, 0);
+        wheel.track("EDC001", 500);
+        wheel.track("EDC002", 5000);
+        wheel.track("EDC003", 19_950);
+        wheel.track("EDC004", 50_000);
+
+        List<String> expired = wheel.advance(20_000);
+
+        assertEquals(new HashSet<>(expired("EDC001", "EDC002", "EDC003")), new HashSet<>(expired));
+        assertEquals(3, expired.size());
+        assertEquals(1, wheel.size());
+        assertTrue(wheel.advance(49_999).isEmpty());
+        assertEquals(expired("EDC004"), wheel.advance(50_000));
+    }
+
+    @Test
+    void heartbeatRacingExpiryIsNotLost() throws Exception {
+        for (int round = 0; round < 2000; round++) {
+            HeartbeatWheel wheel = new HeartbeatWheel(TICK, SLOTS, 0);
+            wheel.track("EDC001", TIMEOUT);
+
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicReference<List<String>> expired = new AtomicReference<>();
+            Thread ticker = new Thread(() -> {
+                await(start);
+                expired.set(wheel.advance(1000));
+            });
+            ticker.start();
+
+            start.countDown();
+            wheel.heartbeat("EDC001", 1000 + TIMEOUT);
+            ticker.join();
+
+            // Whether the expiry or the heartbeat won, the new deadline must still be tracked
+            assertEquals(1, wheel.size(), "heartbeat lost in round " + round + ", expired " + expired.get());
+            assertTrue(wheel.advance(1999).isEmpty(), "expired early in round " + round);
+            assertEquals(expired("EDC001"), wheel.advance(2000));
+        }
+    }
+
+    private static List<String> expired(String... terminalIds) {
+        return Arrays.asList(terminalIds);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
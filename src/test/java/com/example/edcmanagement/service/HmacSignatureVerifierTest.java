@@ -0,0 +1,267 @@
+package com.example.edcmanagement.service;
+
+import org.apache.commons.codec.digest.HmacAlgorithms;
+import org.apache.commons.codec.digest.HmacUtils;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class HmacSignatureVerifierTest {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String SECRET = "EDCmgmt2025!.?";
+
+    private static final LocalDateTime SIGNED_AT = LocalDateTime.of(2025, 3, 7, 9, 5, 1);
+
+    // RFC 4231 test cases 1, 2, 6 and 7: the ones with text messages
+
+    @Test
+    void rfc4231ShortKey() {
+        byte[] key = new byte[20];
+        Arrays.fill(key, (byte) 0x0b);
+
+        assertRfc4231(key, "Hi There", "b0344c61d8db38535ca8afceaf0bf12b881dc200c9833da726e9376c2e32cff7");
+    }
+
+    @Test
+    void rfc4231KeyShorterThanMac() {
+        assertRfc4231("Jefe".getBytes(StandardCharsets.US_ASCII), "what do ya want for nothing?",
+            "5bdcc146bf60754e6a042426089575c75a003f089d2739839dec58b964ec3843");
+    }
+
+    @Test
+    void rfc4231KeyLongerThanBlock() {
+        assertRfc4231(longKey(), "Test Using Larger Than Block-Size Key - Hash Key First",
+            "60e431591ee0b67f0d8a26aacbf5b77f8e0bc6213728c5140546040f0ee37f54");
+    }
+
+    @Test
+    void rfc4231KeyAndMessageLongerThanBlock() {
+        assertRfc4231(longKey(),
+            "This is a test using a larger than block-size key and a larger than block-size data. "
+                + "The key needs to be hashed before being used by the HMAC algorithm.",
+            "9b09ffa71b942fcb27635fbcd5b0e944bfdc63644f0713938a7f51535c3a35e2");
+    }
+
+    @Test
+    void signMatchesCommonsCodec() {
+        assertSignMatchesCommonsCodec(SECRET, "EDC001");
+    }
+
+    @Test
+    void signMatchesCommonsCodecForKeyOfExactlyOneBlock() {
+        // 19 date characters, the separator and 44 secret characters
+        assertSignMatchesCommonsCodec(repeat('s', 44), "EDC001");
+    }
+
+    @Test
+    void signMatchesCommonsCodecForKeyLongerThanBlock() {
+        assertSignMatchesCommonsCodec(repeat('s', 45), "EDC001");
+        assertSignMatchesCommonsCodec(repeat('k', 200), "EDC001");
+    }
+
+    @Test
+    void signMatchesCommonsCodecForNonAsciiInput() {
+        assertSignMatchesCommonsCodec(SECRET, "EDC-Ünïcode-端末");
+        assertSignMatchesCommonsCodec("rahasia-ü-秘密", "EDC001");
+        // Non-ASCII after the reusable buffer has already been grown
+        assertSignMatchesCommonsCodec(SECRET, repeat('x', 100) + "é");
+    }
+
+    @Test
+    void signMatchesCommonsCodecForEmptyMessage() {
+        assertSignMatchesCommonsCodec(SECRET, "");
+    }
+
+    @Test
+    void signMatchesCommonsCodecForMessageLongerThanBuffer() {
+        assertSignMatchesCommonsCodec(SECRET, repeat('T', 300));
+    }
+
+    @Test
+    void matchesAcceptsOwnSignature() {
+        HmacSignatureVerifier verifier = new HmacSignatureVerifier(SECRET);
+        String signature = expected(SECRET, "EDC-Ünïcode-端末", SIGNED_AT);
+
+        assertTrue(verifier.decodeSignature(signature));
+        assertTrue(verifier.matches("EDC-Ünïcode-端末", SIGNED_AT));
+        assertFalse(verifier.matches("EDC-Ünïcode-端末", SIGNED_AT.plusSeconds(1)));
+        assertFalse(verifier.matches("EDC002", SIGNED_AT));
+    }
+
+    @Test
+    void matchesWithDerivedKeyState() {
+        HmacSignatureVerifier verifier = new HmacSignatureVerifier(repeat('k', 200));
+        HmacSignatureVerifier.KeyState key = verifier.deriveKeyState(SIGNED_AT);
+
+        assertTrue(verifier.decodeSignature(expected(repeat('k', 200), "EDC001", SIGNED_AT)));
+        // Repeated, so the cached states must come out of each MAC unchanged
+        for (int i = 0; i < 3; i++) {
+            assertTrue(verifier.matches("EDC001", key));
+            assertFalse(verifier.matches("EDC002", key));
+        }
+    }
+
+    @Test
+    void keyStateSignsLikeCommonsCodec() {
+        HmacSignatureVerifier verifier = new HmacSignatureVerifier(SECRET);
+        HmacSignatureVerifier.KeyState key = verifier.deriveKeyState(SIGNED_AT);
+
+        for (String terminalId : new String[] { "EDC001", "", "EDC-Ünïcode-端末", repeat('T', 300) }) {
+            assertEquals(expected(SECRET, terminalId, SIGNED_AT), verifier.sign(terminalId, key));
+        }
+    }
+
+    @Test
+    void keyStateIsSharedBetweenThreads() throws Exception {
+        HmacSignatureVerifier verifier = new HmacSignatureVerifier(SECRET);
+        HmacSignatureVerifier.KeyState key = verifier.deriveKeyState(SIGNED_AT);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                String terminalId = "EDC00" + t;
+                String expected = expected(SECRET, terminalId, SIGNED_AT);
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        if (!expected.equals(verifier.sign(terminalId, key))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void keyCacheServesTheWindowOnly() {
+        HmacSignatureVerifier verifier = new HmacSignatureVerifier(SECRET);
+        SignatureKeyCache cache = new SignatureKeyCache(verifier, 5);
+        long second = SignatureKeyCache.toLocalSecond(SIGNED_AT);
+
+        assertEquals(11, cache.advance(second));
+        assertEquals(1, cache.advance(second + 1));
+
+        assertTrue(verifier.decodeSignature(expected(SECRET, "EDC001", SIGNED_AT.plusSeconds(6))));
+        assertTrue(verifier.matches("EDC001", cache.get(second + 6)));
+        assertNull(cache.get(second - 6));
+        assertNull(cache.get(second + 7));
+    }
+
+    @Test
+    void verificationDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        HmacSignatureVerifier verifier = new HmacSignatureVerifier(SECRET);
+        SignatureKeyCache cache = new SignatureKeyCache(verifier, 5);
+        long second = SignatureKeyCache.toLocalSecond(SIGNED_AT);
+        cache.advance(second);
+        String valid = expected(SECRET, "EDC001", SIGNED_AT);
+        String invalid = expected(SECRET, "EDC002", SIGNED_AT);
+
+        // Warm up so buffers exist and the loop is compiled
+        verifyMany(verifier, cache, second, valid, invalid, 20_000);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        boolean results = verifyMany(verifier, cache, second, valid, invalid, 10_000);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(results);
+        // Any per-verification object would add up to hundreds of KB over the loop
+        assertTrue(allocated < 1024, "verification allocated " + allocated + " bytes over 10000 iterations");
+    }
+
+    @Test
+    void rejectsTamperedSignature() {
+        HmacSignatureVerifier verifier = new HmacSignatureVerifier(SECRET);
+        char[] signature = expected(SECRET, "EDC001", SIGNED_AT).toCharArray();
+        signature[10] = signature[10] == '0' ? '1' : '0';
+
+        assertTrue(verifier.decodeSignature(new String(signature)));
+        assertFalse(verifier.matches("EDC001", SIGNED_AT));
+    }
+
+    @Test
+    void rejectsMalformedSignature() {
+        HmacSignatureVerifier verifier = new HmacSignatureVerifier(SECRET);
+        String signature = expected(SECRET, "EDC001", SIGNED_AT);
+
+        assertFalse(verifier.decodeSignature(signature.substring(1)));
+        assertFalse(verifier.decodeSignature(signature + "0"));
+        assertFalse(verifier.decodeSignature(signature.toUpperCase().replace('0', 'G')));
+        assertFalse(verifier.decodeSignature(repeat('z', 64)));
+    }
+
+    // Cached keys and per-call keys, valid and invalid signatures
+    private static boolean verifyMany(HmacSignatureVerifier verifier, SignatureKeyCache cache, long second,
+                                      String valid, String invalid, int iterations) {
+        boolean results = true;
+        for (int i = 0; i < iterations; i++) {
+            results &= verifier.decodeSignature(valid) && verifier.matches("EDC001", cache.get(second));
+            results &= verifier.decodeSignature(invalid) && !verifier.matches("EDC001", cache.get(second));
+            results &= verifier.decodeSignature(valid) && verifier.matches("EDC001", SIGNED_AT);
+        }
+        return results;
+    }
+
+    // Through both the per-call key and a pre-keyed state
+    private static void assertRfc4231(byte[] key, String message, String mac) {
+        HmacSignatureVerifier verifier = new HmacSignatureVerifier(SECRET);
+
+        assertEquals(mac, verifier.sign(key, message));
+        assertEquals(mac, verifier.sign(message, verifier.keyState(key)));
+    }
+
+    private static void assertSignMatchesCommonsCodec(String secret, String terminalId) {
+        HmacSignatureVerifier verifier = new HmacSignatureVerifier(secret);
+
+        // Twice, so the second run goes through buffers left behind by the first
+        for (int i = 0; i < 2; i++) {
+            assertEquals(expected(secret, terminalId, SIGNED_AT), verifier.sign(terminalId, SIGNED_AT));
+            assertEquals(expected(secret, terminalId, SIGNED_AT.plusDays(400)),
+                verifier.sign(terminalId, SIGNED_AT.plusDays(400)));
+        }
+    }
+
+    private static String expected(String secret, String terminalId, LocalDateTime dateTime) {
+        String key = dateTime.format(DATE_TIME_FORMATTER) + "|" + secret;
+        return new HmacUtils(HmacAlgorithms.HMAC_SHA_256, key).hmacHex(terminalId);
+    }
+
+    private static byte[] longKey() {
+        byte[] key = new byte[131];
+        Arrays.fill(key, (byte) 0xaa);
+        return key;
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
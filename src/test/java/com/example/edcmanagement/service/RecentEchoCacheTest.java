@@ -0,0 +1,129 @@
+package com.example.edcmanagement.service;
+
+import com.example.edcmanagement.dto.EchoLogDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecentEchoCacheTest {
+
+    @Test
+    void disabledCacheAnswersNothing() {
+        RecentEchoCache cache = cache(false, 4, 64, 360);
+        LocalDateTime now = LocalDateTime.now();
+
+        record(cache, 1, "EDC001", now);
+
+        assertEquals(0, cache.getTerminalCount());
+        assertNull(cache.findByTerminalId("EDC001", now, now.plusHours(1)));
+        assertNull(cache.findAll(now, now.plusHours(1)));
+    }
+
+    @Test
+    void windowsStartingBeforeTheCacheAreNotCovered() {
+        RecentEchoCache cache = cache(true, 4, 64, 360);
+        LocalDateTime now = LocalDateTime.now();
+        record(cache, 1, "EDC001", now);
+
+        assertNull(cache.findByTerminalId("EDC001", now.minusHours(1), now.plusHours(1)));
+        assertNull(cache.findByTerminalId("EDC002", now.minusHours(1), now.plusHours(1)));
+        assertNull(cache.findAll(now.minusHours(1), now.plusHours(1)));
+    }
+
+    @Test
+    void terminalWithoutEchoesIsEmptyOnceCovered() {
+        RecentEchoCache cache = cache(true, 4, 64, 360);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<EchoLogDto> echoLogs = cache.findByTerminalId("EDC001", now, now.plusHours(1));
+
+        assertNotNull(echoLogs);
+        assertTrue(echoLogs.isEmpty());
+    }
+
+    @Test
+    void overwrittenRingOnlyAnswersWindowsAfterTheOverwrittenEcho() {
+        RecentEchoCache cache = cache(true, 4, 64, 360);
+        LocalDateTime start = LocalDateTime.now();
+        for (int i = 1; i <= 6; i++) {
+            record(cache, i, "EDC001", start.plusSeconds(i));
+        }
+        record(cache, 7, "EDC002", start.plusSeconds(1));
+
+        // Echoes 1 and 2 of EDC001 were overwritten
+        assertNull(cache.findByTerminalId("EDC001", start, start.plusHours(1)));
+        assertNull(cache.findByTerminalId("EDC001", start.plusSeconds(2), start.plusHours(1)));
+        assertNull(cache.findAll(start.plusSeconds(2), start.plusHours(1)));
+
+        List<EchoLogDto> echoLogs = cache.findByTerminalId("EDC001", start.plusSeconds(3), start.plusHours(1));
+        assertEquals(4, echoLogs.size());
+        assertEquals(6L, echoLogs.get(0).getId());
+        assertEquals(3L, echoLogs.get(3).getId());
+
+        // The ring that was not overwritten still answers from the start
+        assertEquals(1, cache.findByTerminalId("EDC002", start, start.plusHours(1)).size());
+        assertEquals(4, cache.findAll(start.plusSeconds(3), start.plusHours(1)).size());
+    }
+
+    @Test
+    void evictingAnIdleRingRaisesCoverageForEveryTerminal() throws InterruptedException {
+        RecentEchoCache cache = cache(true, 4, 64, 0);
+        LocalDateTime start = LocalDateTime.now();
+        record(cache, 1, "EDC001", start.plusSeconds(1));
+        Thread.sleep(5);
+
+        cache.evictIdle();
+        LocalDateTime evicted = LocalDateTime.now();
+
+        assertEquals(0, cache.getTerminalCount());
+        assertNull(cache.findByTerminalId("EDC001", start, start.plusHours(1)));
+        assertNull(cache.findByTerminalId("EDC002", start, start.plusHours(1)));
+        assertNull(cache.findAll(start, start.plusHours(1)));
+
+        // A new ring for the evicted terminal only covers what comes after the eviction
+        record(cache, 2, "EDC001", evicted.plusSeconds(1));
+        assertNull(cache.findByTerminalId("EDC001", start, start.plusHours(1)));
+        assertEquals(1, cache.findByTerminalId("EDC001", evicted, evicted.plusHours(1)).size());
+        assertEquals(1, cache.findAll(evicted, evicted.plusHours(1)).size());
+    }
+
+    @Test
+    void memoryCapEvictsLeastRecentlyWrittenRings() {
+        // 1024 slots are about 30 KB per ring, so 1 MB holds about 34 rings
+        RecentEchoCache cache = cache(true, 1024, 1, 360);
+        LocalDateTime start = LocalDateTime.now();
+        for (int i = 0; i < 50; i++) {
+            record(cache, i, "EDC" + i, start.plusMinutes(1));
+        }
+
+        assertTrue(cache.getTerminalCount() < 50);
+        assertTrue(cache.getMemoryBytes() <= 1024 * 1024);
+        assertEquals(1, cache.findByTerminalId("EDC49", LocalDateTime.now(), start.plusHours(1)).size());
+        assertNull(cache.findAll(start, start.plusHours(1)));
+        assertNull(cache.findByTerminalId("EDC49", start, start.plusHours(1)));
+    }
+
+    private static RecentEchoCache cache(boolean enabled, int eventsPerTerminal, long maxMemoryMb,
+                                         long idleEvictionMinutes) {
+        RecentEchoCache cache = new RecentEchoCache();
+        ReflectionTestUtils.setField(cache, "enabled", enabled);
+        ReflectionTestUtils.setField(cache, "eventsPerTerminal", eventsPerTerminal);
+        ReflectionTestUtils.setField(cache, "maxMemoryMb", maxMemoryMb);
+        ReflectionTestUtils.setField(cache, "idleEvictionMinutes", idleEvictionMinutes);
+        ReflectionTestUtils.setField(cache, "dictionarySize", 1024);
+        cache.init();
+        return cache;
+    }
+
+    private static void record(RecentEchoCache cache, long id, String terminalId, LocalDateTime requestTimestamp) {
+        cache.record(id, terminalId, requestTimestamp, EchoProcessingService.SUCCESS,
+            "10.0.0.1", "curl/8.0", true, null);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.edcmanagement.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class SignatureServiceTest {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String TERMINAL_ID = "EDC001";
+
+    private static final LocalDateTime RECEIVED_AT = LocalDateTime.of(2025, 3, 7, 9, 5, 1);
+
+    private SignatureService signatureService;
+
+    @BeforeEach
+    void setUp() {
+        signatureService = newService(true);
+    }
+
+    @Test
+    void parsesWellFormedRequestTime() {
+        assertEquals(SignatureKeyCache.toLocalSecond(RECEIVED_AT),
+            SignatureService.parseLocalSecond("2025-03-07 09:05:01"));
+        assertEquals(SignatureKeyCache.toLocalSecond(LocalDateTime.of(2024, 2, 29, 23, 59, 59)),
+            SignatureService.parseLocalSecond("2024-02-29 23:59:59"));
+    }
+
+    @Test
+    void rejectsMalformedLengths() {
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond(""));
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond("2025-03-07 09:05"));
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond("2025-03-07 09:05:011"));
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond("2025-3-7 9:5:1"));
+    }
+
+    @Test
+    void rejectsWrongSeparators() {
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond("2025/03/07 09:05:01"));
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond("2025-03-07T09:05:01"));
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond("2025-03-07 09.05.01"));
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond("2025-03-07 09:05-01"));
+    }
+
+    @Test
+    void rejectsNonDigits() {
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond("202a-03-07 09:05:01"));
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond("2025-0x-07 09:05:01"));
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond("2025-03-07 09:05:-1"));
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond("2025-03-07 +9:05:01"));
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond("2025-03-07 09:05:0\u0661"));
+    }
+
+    @Test
+    void rejectsImpossibleDates() {
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond("2025-02-30 09:05:01"));
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond("2025-02-29 09:05:01"));
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond("2025-13-01 09:05:01"));
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond("2025-03-07 24:00:00"));
+        assertEquals(Long.MIN_VALUE, SignatureService.parseLocalSecond("2025-03-07 09:60:01"));
+    }
+
+    @Test
+    void malformedRequestTimeFailsValidation() {
+        String signature = signatureService.generateSignatureForTesting(TERMINAL_ID, RECEIVED_AT);
+
+        assertTrue(signatureService.validateSignatureWithRequestTime(
+            signature, TERMINAL_ID, format(RECEIVED_AT), RECEIVED_AT));
+        assertFalse(signatureService.validateSignatureWithRequestTime(
+            signature, TERMINAL_ID, "2025-03-07T09:05:01", RECEIVED_AT));
+        assertFalse(signatureService.validateSignatureWithRequestTime(
+            signature, TERMINAL_ID, "2025-02-30 09:05:01", RECEIVED_AT));
+    }
+
+    @Test
+    void acceptsSkewExactlyAtTheLimit() {
+        LocalDateTime past = RECEIVED_AT.minusSeconds(120);
+        LocalDateTime future = RECEIVED_AT.plusSeconds(120);
+
+        assertTrue(signatureService.validateSignatureWithRequestTime(
+            signatureService.generateSignatureForTesting(TERMINAL_ID, past), TERMINAL_ID, format(past), RECEIVED_AT));
+        assertTrue(signatureService.validateSignatureWithRequestTime(
+            signatureService.generateSignatureForTesting(TERMINAL_ID, future), TERMINAL_ID, format(future), RECEIVED_AT));
+    }
+
+    @Test
+    void rejectsSkewOneSecondPastTheLimit() {
+        LocalDateTime past = RECEIVED_AT.minusSeconds(121);
+        LocalDateTime future = RECEIVED_AT.plusSeconds(121);
+
+        assertFalse(signatureService.validateSignatureWithRequestTime(
+            signatureService.generateSignatureForTesting(TERMINAL_ID, past), TERMINAL_ID, format(past), RECEIVED_AT));
+        assertFalse(signatureService.validateSignatureWithRequestTime(
+            signatureService.generateSignatureForTesting(TERMINAL_ID, future), TERMINAL_ID, format(future), RECEIVED_AT));
+    }
+
+    @Test
+    void requestTimeMustMatchTheSigningTime() {
+        String signature = signatureService.generateSignatureForTesting(TERMINAL_ID, RECEIVED_AT);
+
+        assertFalse(signatureService.validateSignatureWithRequestTime(
+            signature, TERMINAL_ID, format(RECEIVED_AT.minusSeconds(1)), RECEIVED_AT));
+        assertFalse(signatureService.validateSignatureWithRequestTime(
+            signature, "EDC002", format(RECEIVED_AT), RECEIVED_AT));
+    }
+
+    @Test
+    void requestTimeDisablesTheToleranceSearch() {
+        // Signed a minute before the stated request time: only the tolerance search would find it
+        LocalDateTime signedAt = RECEIVED_AT.minusMinutes(1);
+        String signature = signatureService.generateSignatureForTesting(TERMINAL_ID, signedAt);
+
+        assertFalse(signatureService.validateEchoSignature(signature, TERMINAL_ID, format(RECEIVED_AT), RECEIVED_AT));
+        assertTrue(signatureService.validateEchoSignature(signature, TERMINAL_ID, null, RECEIVED_AT));
+    }
+
+    @Test
+    void fallsBackToToleranceWithoutRequestTime() {
+        LocalDateTime signedAt = RECEIVED_AT.plusMinutes(2);
+        String signature = signatureService.generateSignatureForTesting(TERMINAL_ID, signedAt);
+
+        assertTrue(signatureService.validateEchoSignature(signature, TERMINAL_ID, null, RECEIVED_AT));
+        assertTrue(signatureService.validateEchoSignature(signature, TERMINAL_ID, "", RECEIVED_AT));
+        assertFalse(signatureService.validateEchoSignature(signature, TERMINAL_ID, null, RECEIVED_AT.minusMinutes(1)));
+    }
+
+    @Test
+    void rejectsMissingRequestTimeWhenLegacyToleranceIsDisabled() {
+        SignatureService strict = newService(false);
+        String signature = strict.generateSignatureForTesting(TERMINAL_ID, RECEIVED_AT);
+
+        assertFalse(strict.validateEchoSignature(signature, TERMINAL_ID, null, RECEIVED_AT));
+        assertFalse(strict.validateEchoSignature(signature, TERMINAL_ID, "", RECEIVED_AT));
+        assertTrue(strict.validateEchoSignature(signature, TERMINAL_ID, format(RECEIVED_AT), RECEIVED_AT));
+    }
+
+    @Test
+    void keyCacheGivesTheSameResultAsDerivingTheKey() {
+        SignatureService cached = newService(true);
+        ReflectionTestUtils.setField(cached, "keyCacheEnabled", true);
+        cached.init();
+
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        String signature = cached.generateSignatureForTesting(TERMINAL_ID, now);
+
+        assertTrue(cached.validateEchoSignature(signature, TERMINAL_ID, format(now), now));
+        assertFalse(cached.validateEchoSignature(signature, TERMINAL_ID, format(now.plusSeconds(1)), now));
+    }
+
+    private static SignatureService newService(boolean legacyToleranceEnabled) {
+        SignatureService service = new SignatureService();
+        ReflectionTestUtils.setField(service, "secretKey", "EDCmgmt2025!.?");
+        ReflectionTestUtils.setField(service, "maxClockSkewSeconds", 120L);
+        ReflectionTestUtils.setField(service, "legacyToleranceEnabled", legacyToleranceEnabled);
+        ReflectionTestUtils.setField(service, "legacyToleranceMinutes", 2);
+        ReflectionTestUtils.setField(service, "keyCacheEnabled", false);
+        ReflectionTestUtils.setField(service, "keyCacheWindowSeconds", 150);
+        ReflectionTestUtils.setField(service, "echoMetrics", mock(EchoMetrics.class));
+        service.init();
+        return service;
+    }
+
+    private static String format(LocalDateTime dateTime) {
+        return dateTime.format(DATE_TIME_FORMATTER);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.edcmanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class StringDictionaryTest {
+
+    @Test
+    void sameValueGetsSameCode() {
+        StringDictionary dictionary = new StringDictionary(16);
+
+        int first = dictionary.encode("10.0.0.1");
+        int second = dictionary.encode("curl/8.0");
+
+        assertEquals(first, dictionary.encode("10.0.0.1"));
+        assertNotEquals(first, second);
+        assertEquals("10.0.0.1", dictionary.decode(first));
+        assertEquals("curl/8.0", dictionary.decode(second));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void fullDictionaryRejectsNewValuesOnly() {
+        StringDictionary dictionary = new StringDictionary(2);
+        int a = dictionary.encode("a");
+        int b = dictionary.encode("b");
+
+        assertEquals(-1, dictionary.encode("c"));
+        assertEquals(a, dictionary.encode("a"));
+        assertEquals(b, dictionary.encode("b"));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void concurrentEncodesAgreeOnCodes() throws Exception {
+        StringDictionary dictionary = new StringDictionary(1000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    int[] codes = new int[500];
+                    for (int i = 0; i < codes.length; i++) {
+                        codes[i] = dictionary.encode("value-" + i);
+                    }
+                    return codes;
+                }));
+            }
+
+            int[] expected = results.get(0).get();
+            for (Future<int[]> result : results) {
+                int[] codes = result.get();
+                for (int i = 0; i < codes.length; i++) {
+                    assertEquals(expected[i], codes[i]);
+                    assertEquals("value-" + i, dictionary.decode(codes[i]));
+                }
+            }
+
+            Set<Integer> distinct = new HashSet<>();
+            for (int code : expected) {
+                distinct.add(code);
+            }
+            assertEquals(500, distinct.size());
+            assertEquals(500, dictionary.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
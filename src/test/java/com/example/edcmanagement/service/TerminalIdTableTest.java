@@ -0,0 +1,285 @@
+package com.example.edcmanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TerminalIdTableTest {
+
+    @Test
+    void putGetRemove() {
+        TerminalIdTable table = new TerminalIdTable(16);
+
+        assertTrue(table.put("EDC001", "ACTIVE"));
+        assertTrue(table.put("EDC002", "INACTIVE"));
+        assertEquals("ACTIVE", table.getStatus("EDC001"));
+        assertEquals("INACTIVE", table.getStatus("EDC002"));
+        assertNull(table.getStatus("EDC003"));
+        assertEquals(2, table.size());
+
+        assertTrue(table.remove("EDC001"));
+        assertFalse(table.remove("EDC001"));
+        assertNull(table.getStatus("EDC001"));
+        assertEquals("INACTIVE", table.getStatus("EDC002"));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void putUpdatesExistingStatus() {
+        TerminalIdTable table = new TerminalIdTable(16);
+
+        assertTrue(table.put("EDC001", "ACTIVE"));
+        assertFalse(table.put("EDC001", "OFFLINE"));
+        assertEquals("OFFLINE", table.getStatus("EDC001"));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void prefixesAndEmptyIdAreDistinctKeys() {
+        TerminalIdTable table = new TerminalIdTable(16);
+        table.put("EDC", "A");
+        table.put("EDC0", "B");
+        table.put("", "C");
+
+        assertEquals("A", table.getStatus("EDC"));
+        assertEquals("B", table.getStatus("EDC0"));
+        assertEquals("C", table.getStatus(""));
+        assertNull(table.getStatus("EDC00"));
+    }
+
+    @Test
+    void reinsertedIdIsFoundAfterRemoval() {
+        TerminalIdTable table = new TerminalIdTable(16);
+        table.put("EDC001", "ACTIVE");
+        table.remove("EDC001");
+
+        assertTrue(table.put("EDC001", "MAINTENANCE"));
+        assertEquals("MAINTENANCE", table.getStatus("EDC001"));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void tombstonesAreReusedWithoutGrowing() {
+        TerminalIdTable table = new TerminalIdTable(16);
+        for (int i = 0; i < 8; i++) {
+            table.put("KEEP" + i, "ACTIVE");
+        }
+        // The first rebuild may double the table, as more than a quarter of the slots is live
+        for (int i = 0; i < 100; i++) {
+            table.put("WARMUP" + i, "ACTIVE");
+            table.remove("WARMUP" + i);
+        }
+        int capacity = table.capacity();
+
+        // Far more inserts than slots; only tombstone reuse and compaction keep the table at its size
+        for (int i = 0; i < 10_000; i++) {
+            table.put("CHURN" + i, "ACTIVE");
+            assertTrue(table.remove("CHURN" + i));
+        }
+
+        assertEquals(capacity, table.capacity());
+        assertEquals(8, table.size());
+        for (int i = 0; i < 8; i++) {
+            assertEquals("ACTIVE", table.getStatus("KEEP" + i));
+        }
+        assertNull(table.getStatus("CHURN9999"));
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        TerminalIdTable table = new TerminalIdTable(16);
+        for (int i = 0; i < 20_000; i++) {
+            assertTrue(table.put("EDC" + i, i % 3 == 0 ? "ACTIVE" : "INACTIVE"));
+        }
+
+        assertEquals(20_000, table.size());
+        assertTrue(table.capacity() >= 40_000);
+        for (int i = 0; i < 20_000; i++) {
+            assertEquals(i % 3 == 0 ? "ACTIVE" : "INACTIVE", table.getStatus("EDC" + i));
+        }
+        assertNull(table.getStatus("EDC20000"));
+    }
+
+    @Test
+    void compactsArenaAfterManyRemovals() {
+        TerminalIdTable table = new TerminalIdTable(1000);
+        for (int i = 0; i < 1000; i++) {
+            table.put("FIRST-" + i, "ACTIVE");
+        }
+        long footprint = table.memoryBytes();
+
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(table.remove((round == 0 ? "FIRST-" : "R" + (round - 1) + "-") + i));
+            }
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(table.put("R" + round + "-" + i, "ACTIVE"));
+            }
+        }
+
+        // Without compaction the arena would hold 50 generations of IDs
+        assertTrue(table.memoryBytes() <= footprint * 2,
+            "footprint grew from " + footprint + " to " + table.memoryBytes());
+        assertEquals(1000, table.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("ACTIVE", table.getStatus("R49-" + i));
+            assertNull(table.getStatus("R48-" + i));
+            assertNull(table.getStatus("FIRST-" + i));
+        }
+    }
+
+    @Test
+    void compactionKeepsEntriesInsertedAfterIt() {
+        TerminalIdTable table = new TerminalIdTable(16);
+        for (int i = 0; i < 200; i++) {
+            table.put("OLD" + i, "ACTIVE");
+        }
+        for (int i = 0; i < 190; i++) {
+            table.remove("OLD" + i);
+        }
+        for (int i = 0; i < 500; i++) {
+            table.put("NEW" + i, i % 2 == 0 ? "ACTIVE" : "OFFLINE");
+        }
+
+        assertEquals(510, table.size());
+        for (int i = 190; i < 200; i++) {
+            assertEquals("ACTIVE", table.getStatus("OLD" + i));
+        }
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i % 2 == 0 ? "ACTIVE" : "OFFLINE", table.getStatus("NEW" + i));
+        }
+    }
+
+    @Test
+    void nonAsciiIds() {
+        TerminalIdTable table = new TerminalIdTable(16);
+        table.put("端末-001", "ACTIVE");
+        table.put("EDC-Ü", "OFFLINE");
+        table.put("EDC-U", "INACTIVE");
+
+        assertEquals("ACTIVE", table.getStatus("端末-001"));
+        assertEquals("OFFLINE", table.getStatus("EDC-Ü"));
+        assertEquals("INACTIVE", table.getStatus("EDC-U"));
+        assertNull(table.getStatus("端末-002"));
+
+        assertTrue(table.remove("EDC-Ü"));
+        assertNull(table.getStatus("EDC-Ü"));
+        assertEquals("INACTIVE", table.getStatus("EDC-U"));
+    }
+
+    @Test
+    void asciiHashMatchesUtf8Hash() {
+        // ASCII lookups hash the String directly; they must land where put() hashed the UTF-8 bytes
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            char[] chars = new char[random.nextInt(40)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = (char) random.nextInt(0x80);
+            }
+            String id = new String(chars);
+            assertEquals(TerminalIdTable.hash(id.getBytes(StandardCharsets.UTF_8)), TerminalIdTable.hashAscii(id), id);
+        }
+    }
+
+    @Test
+    void forEachVisitsLiveEntries() {
+        TerminalIdTable table = new TerminalIdTable(16);
+        table.put("EDC001", "ACTIVE");
+        table.put("端末", "OFFLINE");
+        table.put("EDC002", "ACTIVE");
+        table.remove("EDC002");
+
+        Map<String, String> visited = new HashMap<>();
+        table.forEach(visited::put);
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("EDC001", "ACTIVE");
+        expected.put("端末", "OFFLINE");
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void clearRemovesEverything() {
+        TerminalIdTable table = new TerminalIdTable(16);
+        table.put("EDC001", "ACTIVE");
+        table.clear();
+
+        assertEquals(0, table.size());
+        assertNull(table.getStatus("EDC001"));
+        assertTrue(table.put("EDC001", "INACTIVE"));
+        assertEquals("INACTIVE", table.getStatus("EDC001"));
+    }
+
+    @Test
+    void rejectsTooManyDistinctStatuses() {
+        TerminalIdTable table = new TerminalIdTable(16);
+        for (int i = 0; i < 127; i++) {
+            table.put("EDC" + i, "STATUS" + i);
+        }
+
+        assertThrows(IllegalStateException.class, () -> table.put("EDC127", "STATUS127"));
+        assertEquals("STATUS126", table.getStatus("EDC126"));
+    }
+
+    @Test
+    void readersSeeStableEntriesWhileTableIsRebuilt() throws Exception {
+        TerminalIdTable table = new TerminalIdTable(16);
+        for (int i = 0; i < 500; i++) {
+            table.put("STABLE" + i, i % 2 == 0 ? "ACTIVE" : "端末");
+        }
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(4);
+
+        Thread[] readers = new Thread[4];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                started.countDown();
+                int i = 0;
+                while (!done.get() && failure.get() == null) {
+                    int key = i++ % 500;
+                    String status = table.getStatus("STABLE" + key);
+                    if (!(key % 2 == 0 ? "ACTIVE" : "端末").equals(status)) {
+                        failure.set("STABLE" + key + " read as " + status);
+                    }
+                    String churn = table.getStatus("CHURN" + key);
+                    if (churn != null && !"OFFLINE".equals(churn)) {
+                        failure.set("CHURN" + key + " read as " + churn);
+                    }
+                }
+            });
+            readers[r].start();
+        }
+        started.await();
+
+        // Growth, tombstones and arena compaction, all while the readers probe
+        for (int round = 0; round < 40; round++) {
+            for (int i = 0; i < 2000; i++) {
+                table.put("CHURN" + (round * 2000 + i), "OFFLINE");
+            }
+            for (int i = 0; i < 2000; i++) {
+                table.remove("CHURN" + (round * 2000 + i));
+            }
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get(), failure.get());
+        assertEquals(500, table.size());
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.edcmanagement.service;
+
+import com.example.edcmanagement.dto.TerminalEDCRequest;
+import com.example.edcmanagement.dto.TerminalImportResultDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TerminalImportServiceTest {
+
+    private static final String[] HEADER = { "terminalId", "location", "status", "merchantName", "ipAddress", "port" };
+
+    private TerminalImportService importService;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TerminalEntityCache terminalEntityCache;
+
+    // Terminal IDs bound to each batch upsert, in order
+    private final List<List<String>> batches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        terminalEntityCache = mock(TerminalEntityCache.class);
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class)))
+            .thenAnswer(invocation -> {
+                List<String> terminalIds = new ArrayList<>();
+                Connection connection = mock(Connection.class);
+                when(connection.createArrayOf(eq("text"), any(Object[].class))).thenAnswer(create -> {
+                    if (terminalIds.isEmpty()) {
+                        for (Object terminalId : (Object[]) create.getArgument(1)) {
+                            terminalIds.add((String) terminalId);
+                        }
+                    }
+                    return null;
+                });
+                PreparedStatement ps = mock(PreparedStatement.class);
+                when(ps.getConnection()).thenReturn(connection);
+                invocation.getArgument(1, PreparedStatementSetter.class).setValues(ps);
+                batches.add(terminalIds);
+                return terminalIds;
+            });
+
+        importService = new TerminalImportService();
+        ReflectionTestUtils.setField(importService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(importService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(importService, "validator",
+            Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(importService, "terminalRegistry", mock(TerminalRegistry.class));
+        ReflectionTestUtils.setField(importService, "livenessMonitor", mock(TerminalLivenessMonitor.class));
+        ReflectionTestUtils.setField(importService, "terminalEntityCache", terminalEntityCache);
+        ReflectionTestUtils.setField(importService, "changeBus", mock(TerminalChangeBus.class));
+        ReflectionTestUtils.setField(importService, "batchSize", 1000);
+        ReflectionTestUtils.setField(importService, "maxReportedErrors", 1000);
+    }
+
+    @Test
+    void splitsPlainFields() {
+        assertEquals(Arrays.asList("EDC001", "Jakarta", "ACTIVE"), TerminalImportService.parseCsvLine("EDC001,Jakarta,ACTIVE"));
+        assertEquals(Arrays.asList("EDC001", "", ""), TerminalImportService.parseCsvLine("EDC001,,"));
+    }
+
+    @Test
+    void keepsCommasInsideQuotes() {
+        assertEquals(Arrays.asList("EDC001", "Jl. Sudirman, Jakarta", "ACTIVE"),
+            TerminalImportService.parseCsvLine("EDC001,\"Jl. Sudirman, Jakarta\",ACTIVE"));
+    }
+
+    @Test
+    void unescapesDoubledQuotes() {
+        assertEquals(Arrays.asList("EDC001", "Toko \"Maju\"", ""),
+            TerminalImportService.parseCsvLine("EDC001,\"Toko \"\"Maju\"\"\",\"\""));
+    }
+
+    @Test
+    void rejectsUnterminatedQuotes() {
+        assertThrows(IllegalArgumentException.class,
+            () -> TerminalImportService.parseCsvLine("EDC001,\"Jl. Sudirman, Jakarta,ACTIVE"));
+        assertThrows(IllegalArgumentException.class,
+            () -> TerminalImportService.parseCsvLine("EDC001,\"Toko \"\"Maju\"\""));
+    }
+
+    @Test
+    void normalisesHeaderNames() {
+        assertArrayEquals(HEADER,
+            TerminalImportService.readHeader("terminal_id,Location,STATUS,Merchant Name,ip_address, Port "));
+        assertArrayEquals(HEADER,
+            TerminalImportService.readHeader("terminalId,location,status,merchantName,ipAddress,port"));
+    }
+
+    @Test
+    void ignoresUnknownHeaderColumns() {
+        assertArrayEquals(new String[] { "terminalId", null, "location", "status" },
+            TerminalImportService.readHeader("terminal_id,notes,location,status"));
+    }
+
+    @Test
+    void rejectsHeaderWithoutRequiredColumns() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> TerminalImportService.readHeader("terminal_id,location,merchant_name"));
+        assertEquals("CSV header must contain a status column", e.getMessage());
+    }
+
+    @Test
+    void mapsRowToRequest() {
+        TerminalEDCRequest request = TerminalImportService.parseCsvRow(
+            " EDC001 ,\"Jl. Sudirman, Jakarta\",ACTIVE,\"Toko \"\"Maju\"\"\",10.0.0.1,8080", HEADER);
+
+        assertEquals("EDC001", request.getTerminalId());
+        assertEquals("Jl. Sudirman, Jakarta", request.getLocation());
+        assertEquals("ACTIVE", request.getStatus());
+        assertEquals("Toko \"Maju\"", request.getMerchantName());
+        assertEquals("10.0.0.1", request.getIpAddress());
+        assertEquals(Integer.valueOf(8080), request.getPort());
+    }
+
+    @Test
+    void leavesEmptyValuesUnset() {
+        TerminalEDCRequest request = TerminalImportService.parseCsvRow("EDC001,Jakarta,ACTIVE,,,", HEADER);
+
+        assertNull(request.getMerchantName());
+        assertNull(request.getIpAddress());
+        assertNull(request.getPort());
+    }
+
+    @Test
+    void rejectsColumnCountMismatch() {
+        IllegalArgumentException fewer = assertThrows(IllegalArgumentException.class,
+            () -> TerminalImportService.parseCsvRow("EDC001,Jakarta,ACTIVE", HEADER));
+        assertEquals("Expected 6 columns but found 3", fewer.getMessage());
+
+        // The quoted comma is part of the value, the unquoted one is not
+        assertThrows(IllegalArgumentException.class,
+            () -> TerminalImportService.parseCsvRow("EDC001,Jl. Sudirman, Jakarta,ACTIVE,,,", HEADER));
+    }
+
+    @Test
+    void rejectsNonNumericPort() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> TerminalImportService.parseCsvRow("EDC001,Jakarta,ACTIVE,,,80a", HEADER));
+        assertEquals("Port is not a number: 80a", e.getMessage());
+    }
+
+    @Test
+    void reportsUnreadableRowsAndKeepsImporting() throws IOException {
+        TerminalImportResultDto result = importCsv(
+            "terminal_id,location,status,port",
+            "EDC001,Jakarta,ACTIVE,80a",
+            "EDC002,\"Bandung,ACTIVE,8080",
+            "EDC003,Surabaya,ACTIVE",
+            "EDC004,Medan,ACTIVE,8080");
+
+        assertEquals(4, result.getTotalRows());
+        assertEquals(1, result.getUpserted());
+        assertEquals(3, result.getFailed());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        assertEquals("Unreadable row: Port is not a number: 80a", result.getErrors().get(0).getMessage());
+        assertEquals("Unreadable row: Unterminated quoted field", result.getErrors().get(1).getMessage());
+        assertEquals("Unreadable row: Expected 4 columns but found 3", result.getErrors().get(2).getMessage());
+        assertEquals(Arrays.asList(Arrays.asList("EDC004")), batches);
+    }
+
+    @Test
+    void repeatedTerminalIdFlushesTheBatchFirst() throws IOException {
+        TerminalImportResultDto result = importCsv(
+            "terminal_id,location,status",
+            "EDC001,Jakarta,ACTIVE",
+            "EDC002,Bandung,ACTIVE",
+            "EDC001,Surabaya,INACTIVE",
+            "EDC003,Medan,ACTIVE");
+
+        assertEquals(4, result.getTotalRows());
+        assertEquals(4, result.getUpserted());
+        assertEquals(0, result.getFailed());
+        assertEquals(Arrays.asList(Arrays.asList("EDC001", "EDC002"), Arrays.asList("EDC001", "EDC003")), batches);
+        verify(terminalEntityCache, times(2)).evictAll();
+    }
+
+    private TerminalImportResultDto importCsv(String... lines) throws IOException {
+        byte[] csv = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+        return importService.importTerminals(new ByteArrayInputStream(csv), TerminalImportService.CSV);
+    }
+}